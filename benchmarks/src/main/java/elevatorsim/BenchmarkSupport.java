@@ -0,0 +1,60 @@
+package elevatorsim;
+
+import java.util.*;
+
+/**
+ * Shared setup for the benchmarks: seeded random traffic and dispatch strategies by name.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /*
+     * Builds a schedule of hall calls with Poisson arrivals at the given mean rate per time
+     * unit, with origin and destination floors drawn uniformly from the building.
+     */
+    static Map<Integer, List<MultiElevatorController.Request>> poissonSchedule(BuildingConfig config,
+            double arrivalRate, int duration, long seed) {
+        Random random = new Random(seed);
+        Map<Integer, List<MultiElevatorController.Request>> mapOfTimesToRequest = new HashMap<>();
+        double time = 0;
+        while (true) {
+            time += -Math.log(1 - random.nextDouble()) / arrivalRate;
+            if (time >= duration) {
+                return mapOfTimesToRequest;
+            }
+            MultiElevatorController.Request request = randomRequest(config, (int) time, random);
+            mapOfTimesToRequest.computeIfAbsent(request.time, t -> new ArrayList<>()).add(request);
+        }
+    }
+
+    static MultiElevatorController.Request randomRequest(BuildingConfig config, int time, Random random) {
+        int floor = config.bottomFloor() + random.nextInt(config.numFloors());
+        int destination = config.bottomFloor() + random.nextInt(config.numFloors() - 1);
+        if (destination >= floor) {
+            destination++;
+        }
+        MultiElevatorController.Direction direction = destination > floor
+                ? MultiElevatorController.Direction.UP
+                : MultiElevatorController.Direction.DOWN;
+        return new MultiElevatorController.Request(floor, direction, destination, time);
+    }
+
+    /*
+     * Returns a new instance of the named strategy: "leastRequests" for up/down collective
+     * dispatch, "eta" or "destination".
+     */
+    static DispatchStrategy newDispatchStrategy(String strategy) {
+        switch (strategy) {
+            case "leastRequests":
+                return new LeastRequestsDispatchStrategy();
+            case "eta":
+                return new EtaDispatchStrategy();
+            case "destination":
+                return new DestinationDispatchStrategy();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+}
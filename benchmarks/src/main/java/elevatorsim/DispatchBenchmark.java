@@ -0,0 +1,59 @@
+package elevatorsim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of choosing a car for one hall call. The controller is run part way through a
+ * busy schedule first, so the cars are spread over the building with requests queued.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int NUM_PROBES = 1024;
+
+    @Param({ "10", "50", "150" })
+    int floors;
+
+    @Param({ "2", "8", "32" })
+    int cars;
+
+    @Param({ "0.5" })
+    double arrivalRate;
+
+    // "leastRequests", "eta" or "destination"
+    @Param({ "leastRequests", "eta", "destination" })
+    String strategy;
+
+    private MultiElevatorController controller;
+    private MultiElevatorController.Request[] probes;
+    private int nextProbe;
+
+    @Setup
+    public void setUp() {
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(floors, 1).withNumElevators(cars);
+        controller = new MultiElevatorController(config);
+        controller.setDispatchStrategy(BenchmarkSupport.newDispatchStrategy(strategy));
+        // Stop half way through the schedule so the cars are busy
+        controller.runSimulation(BenchmarkSupport.poissonSchedule(config, arrivalRate, 1200, 42), 600);
+        Random random = new Random(7);
+        probes = new MultiElevatorController.Request[NUM_PROBES];
+        for (int i = 0; i < NUM_PROBES; i++) {
+            probes[i] = BenchmarkSupport.randomRequest(config, 600, random);
+        }
+    }
+
+    @Benchmark
+    public MultiElevatorController.Elevator getBestElevator() {
+        MultiElevatorController.Request request = probes[nextProbe];
+        nextProbe = (nextProbe + 1) & (NUM_PROBES - 1);
+        return controller.getBestElevator(request);
+    }
+}
@@ -0,0 +1,83 @@
+package elevatorsim;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Per-car work done on every floor a car passes: the full processElevatorRequests step,
+ * and the direction decision on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorTickBenchmark {
+
+    /*
+     * A car shuttling between the bottom and top floor, with car buttons pressed on every
+     * fifth floor. The buttons are pressed again whenever the car runs out of stops.
+     */
+    @State(Scope.Thread)
+    public static class ShuttlingCar {
+        @Param({ "10", "50", "150" })
+        int floors;
+
+        MultiElevatorController.Elevator elevator;
+        BuildingConfig config;
+        int time;
+
+        @Setup
+        public void setUp() {
+            config = BuildingConfig.DEFAULT.withFloors(floors, 1);
+            elevator = new MultiElevatorController.Elevator(0, config);
+            pressButtons();
+        }
+
+        void pressButtons() {
+            for (int floor = config.bottomFloor(); floor <= config.topFloor(); floor += 5) {
+                elevator.handleElevatorButtonPress(floor, time);
+            }
+            elevator.handleElevatorButtonPress(config.topFloor(), time);
+        }
+    }
+
+    /*
+     * A car half way up the building heading for a stop on the top floor, so every direction
+     * decision has to look for stops above it.
+     */
+    @State(Scope.Thread)
+    public static class CarBetweenStops {
+        @Param({ "10", "50", "150" })
+        int floors;
+
+        MultiElevatorController.Elevator elevator;
+
+        @Setup
+        public void setUp() {
+            BuildingConfig config = BuildingConfig.DEFAULT.withFloors(floors, 1);
+            elevator = new MultiElevatorController.Elevator(0, config);
+            elevator.handleElevatorButtonPress(config.topFloor(), 0);
+            int time = 0;
+            while (elevator.getCurrentFloor() < config.bottomFloor() + config.numFloors() / 2) {
+                elevator.processElevatorRequests(time++);
+            }
+        }
+    }
+
+    @Benchmark
+    public int processElevatorRequests(ShuttlingCar car) {
+        car.elevator.processElevatorRequests(car.time++);
+        if (!car.elevator.isActive()) {
+            car.pressButtons();
+        }
+        return car.elevator.getCurrentFloor();
+    }
+
+    @Benchmark
+    public MultiElevatorController.Direction updateElevatorDirection(CarBetweenStops car) {
+        car.elevator.updateElevatorDirection();
+        return car.elevator.getDirection();
+    }
+}
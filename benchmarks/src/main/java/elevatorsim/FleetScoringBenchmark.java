@@ -0,0 +1,67 @@
+package elevatorsim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of scoring one hall call against every car of a fleet with up/down collective
+ * dispatch, one car at a time and in SIMD lanes. The fleet is filled at random rather
+ * than by running a controller, so fleets of thousands of cars are quick to set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class FleetScoringBenchmark {
+
+    private static final int NUM_PROBES = 1024;
+    private static final int FLOORS = 50;
+
+    @Param({ "8", "64", "1024", "16384" })
+    int cars;
+
+    // "scalar" or "vector"
+    @Param({ "scalar", "vector" })
+    String scoring;
+
+    private CarFleet fleet;
+    private MultiElevatorController.Request[] probes;
+    private int nextProbe;
+
+    @Setup
+    public void setUp() {
+        if (scoring.equals("vector") && !CarFleet.isVectorized()) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+        Random random = new Random(42);
+        MultiElevatorController.Direction[] directions = MultiElevatorController.Direction.values();
+        fleet = new CarFleet(cars);
+        for (int car = 0; car < cars; car++) {
+            fleet.floor[car] = 1 + random.nextInt(FLOORS);
+            fleet.direction[car] = random.nextInt(directions.length);
+            fleet.passengersOnBoard[car] = random.nextInt(9);
+            fleet.loadOnBoard[car] = fleet.passengersOnBoard[car] * MultiElevatorController.Request.PASSENGER_WEIGHT;
+            fleet.requests[car] = random.nextInt(10);
+        }
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(FLOORS, 1);
+        probes = new MultiElevatorController.Request[NUM_PROBES];
+        for (int i = 0; i < NUM_PROBES; i++) {
+            probes[i] = BenchmarkSupport.randomRequest(config, 0, random);
+        }
+    }
+
+    @Benchmark
+    public int leastRequests() {
+        MultiElevatorController.Request request = probes[nextProbe];
+        nextProbe = (nextProbe + 1) & (NUM_PROBES - 1);
+        if (scoring.equals("vector")) {
+            return fleet.leastRequests(request.floor, request.direction, request.passengers, request.weight, 8, 630);
+        }
+        return fleet.scalarLeastRequests(request.floor, request.direction, request.passengers, request.weight, 8,
+                630);
+    }
+}
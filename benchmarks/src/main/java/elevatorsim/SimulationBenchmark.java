@@ -0,0 +1,80 @@
+package elevatorsim;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * End-to-end throughput of runSimulation: one hour of random traffic against a fresh
+ * controller per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({ "10", "50", "150" })
+    int floors;
+
+    @Param({ "2", "8", "32" })
+    int cars;
+
+    // Mean hall calls per time unit
+    @Param({ "0.05", "0.5" })
+    double arrivalRate;
+
+    @Param({ "3600" })
+    int simTime;
+
+    // "leastRequests", "eta" or "destination", all run on the same schedule
+    @Param({ "leastRequests", "destination" })
+    String strategy;
+
+    // Where events go: "none", "text" or "binary". Text and binary output is discarded.
+    @Param({ "none" })
+    String eventSink;
+
+    // Run every car as an actor on a virtual thread of its own, with messages arriving at once
+    @Param({ "false" })
+    boolean carActors;
+
+    private BuildingConfig config;
+    private Map<Integer, List<MultiElevatorController.Request>> mapOfTimesToRequest;
+
+    @Setup
+    public void setUp() {
+        config = BuildingConfig.DEFAULT.withFloors(floors, 1).withNumElevators(cars).withSimTime(simTime);
+        mapOfTimesToRequest = BenchmarkSupport.poissonSchedule(config, arrivalRate, simTime, 42);
+    }
+
+    @Benchmark
+    public SimulationMetrics runSimulation() {
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setEventListener(newEventListener());
+        controller.setDispatchStrategy(BenchmarkSupport.newDispatchStrategy(strategy));
+        if (carActors) {
+            controller.useCarActors(0);
+        }
+        controller.runSimulation(mapOfTimesToRequest, config.simTime());
+        return controller.getMetrics();
+    }
+
+    private ElevatorEventListener newEventListener() {
+        switch (eventSink) {
+            case "none":
+                return ElevatorEventListener.NONE;
+            case "text":
+                return new TextEventLogger(OutputStream.nullOutputStream());
+            case "binary":
+                return new BinaryTraceWriter(OutputStream.nullOutputStream());
+            default:
+                throw new IllegalArgumentException("Unknown eventSink: " + eventSink);
+        }
+    }
+}
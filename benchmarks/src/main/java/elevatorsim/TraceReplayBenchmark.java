@@ -0,0 +1,94 @@
+package elevatorsim;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cost of reading a day of requests back from a trace file, as CSV and in the binary
+ * format, without running the simulation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceReplayBenchmark {
+
+    // Mean hall calls per time unit, over a day of 86400 time units
+    @Param({ "1", "10" })
+    double arrivalRate;
+
+    private Path directory;
+    private Path csvTrace;
+    private Path binaryTrace;
+
+    @Setup
+    public void setUp() throws IOException {
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(50, 1);
+        Map<Integer, List<MultiElevatorController.Request>> schedule = BenchmarkSupport.poissonSchedule(config,
+                arrivalRate, 86400, 42);
+        directory = Files.createTempDirectory("traces");
+        csvTrace = directory.resolve("requests.csv");
+        binaryTrace = directory.resolve("requests.bin");
+        try (Writer out = Files.newBufferedWriter(csvTrace)) {
+            for (List<MultiElevatorController.Request> requests : new TreeMap<>(schedule).values()) {
+                for (MultiElevatorController.Request request : requests) {
+                    out.write(request.floor + "," + request.direction + "," + request.destination + ","
+                            + request.time + "\n");
+                }
+            }
+        }
+        TraceConverter.convert(csvTrace, binaryTrace);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(csvTrace);
+        Files.delete(binaryTrace);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long readCsv() throws IOException {
+        try (TraceReader requests = TraceReader.open(csvTrace)) {
+            return sumTimes(requests);
+        }
+    }
+
+    @Benchmark
+    public long readBinaryRequests() throws IOException {
+        try (BinaryTraceReader requests = BinaryTraceReader.open(binaryTrace)) {
+            return sumTimes(requests);
+        }
+    }
+
+    // Walks the records in place, with no Request objects at all
+    @Benchmark
+    public long readBinaryRecords() throws IOException {
+        long sum = 0;
+        try (BinaryTraceReader records = BinaryTraceReader.open(binaryTrace)) {
+            while (records.next()) {
+                sum += records.time();
+            }
+        }
+        return sum;
+    }
+
+    private static long sumTimes(RequestSource requests) {
+        long sum = 0;
+        MultiElevatorController.Request request;
+        while ((request = requests.poll()) != null) {
+            sum += request.time;
+        }
+        return sum;
+    }
+}
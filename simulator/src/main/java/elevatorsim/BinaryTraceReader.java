@@ -0,0 +1,182 @@
+package elevatorsim;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+import static elevatorsim.BinaryTraceWriter.RECORD_SIZE;
+
+/**
+ * Reads a trace in the format written by BinaryTraceWriter through a read-only memory
+ * mapping, one window of the file at a time.
+ *
+ * The reader is a cursor: next() moves to the following record and the accessors read
+ * its fields straight from the mapping, so walking a trace allocates nothing. Used as a
+ * RequestSource it replays the trace's FLOOR_BUTTON records as requests and skips all
+ * other records. A reader should be used one way or the other, not both.
+ */
+final class BinaryTraceReader implements RequestSource, Closeable {
+
+    private static final int WINDOW_RECORDS = 1 << 24;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final FileChannel file;
+    private final int windowRecords;
+    private final long recordCount;
+    private MappedByteBuffer window;
+    private long windowFirstRecord;
+    private long index = -1; // The current record
+    private int offset; // Where the current record starts within the window
+
+    private Request next;
+    private int lastRequestTime = Integer.MIN_VALUE;
+
+    private BinaryTraceReader(FileChannel file, int windowRecords) throws IOException {
+        long size = file.size();
+        if (size % RECORD_SIZE != 0) {
+            file.close();
+            throw new IOException("Trace is " + size + " bytes, not a whole number of " + RECORD_SIZE
+                    + " byte records");
+        }
+        this.file = file;
+        this.windowRecords = windowRecords;
+        this.recordCount = size / RECORD_SIZE;
+    }
+
+    static BinaryTraceReader open(Path path) throws IOException {
+        return open(path, WINDOW_RECORDS);
+    }
+
+    static BinaryTraceReader open(Path path, int windowRecords) throws IOException {
+        return new BinaryTraceReader(FileChannel.open(path, StandardOpenOption.READ), windowRecords);
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /*
+     * Moves to the next record. Returns false, leaving no current record, at the end of the
+     * trace.
+     */
+    boolean next() {
+        if (index + 1 >= recordCount) {
+            index = recordCount;
+            return false;
+        }
+        index++;
+        if (window == null || index - windowFirstRecord >= windowRecords) {
+            mapWindow(index);
+        }
+        offset = (int) (index - windowFirstRecord) * RECORD_SIZE;
+        return true;
+    }
+
+    int time() {
+        return window.getInt(offset);
+    }
+
+    byte type() {
+        return window.get(offset + 4);
+    }
+
+    /*
+     * The record's direction, or null for record types that have none.
+     */
+    Direction direction() {
+        byte ordinal = window.get(offset + 5);
+        return ordinal < 0 ? null : DIRECTIONS[ordinal];
+    }
+
+    int elevatorID() {
+        return window.getShort(offset + 6);
+    }
+
+    /*
+     * The number of passengers of a FLOOR_BUTTON record, which is kept where other records
+     * keep the elevator ID.
+     */
+    int passengers() {
+        return window.getShort(offset + 6);
+    }
+
+    int floor() {
+        return window.getInt(offset + 8);
+    }
+
+    int destination() {
+        return window.getInt(offset + 12);
+    }
+
+    int weight() {
+        return window.getInt(offset + 16);
+    }
+
+    @Override
+    public Request peek() {
+        while (next == null && next()) {
+            if (type() == BinaryTraceWriter.FLOOR_BUTTON_RECORD) {
+                int time = time();
+                if (time < lastRequestTime) {
+                    throw new IllegalArgumentException("Trace record " + index + ": time " + time
+                            + " is earlier than the previous request's time " + lastRequestTime);
+                }
+                lastRequestTime = time;
+                next = new Request(floor(), direction(), destination(), time, passengers(), weight());
+            }
+        }
+        return next;
+    }
+
+    @Override
+    public Request poll() {
+        Request request = peek();
+        next = null;
+        return request;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        file.close();
+    }
+
+    /*
+     * The index of the first record that differs between two traces, or -1 if they are
+     * identical. When one trace is a prefix of the other, that's the length of the shorter.
+     * Both files are compared a window at a time straight from their mappings.
+     */
+    static long mismatch(Path a, Path b) throws IOException {
+        try (BinaryTraceReader first = open(a); BinaryTraceReader second = open(b)) {
+            long common = Math.min(first.recordCount, second.recordCount);
+            for (long start = 0; start < common; start += first.windowRecords) {
+                int records = (int) Math.min(first.windowRecords, common - start);
+                first.mapWindow(start);
+                second.mapWindow(start);
+                int mismatch = first.window.slice(0, records * RECORD_SIZE)
+                        .mismatch(second.window.slice(0, records * RECORD_SIZE));
+                if (mismatch >= 0) {
+                    return start + mismatch / RECORD_SIZE;
+                }
+            }
+            return first.recordCount == second.recordCount ? -1 : common;
+        }
+    }
+
+    private void mapWindow(long firstRecord) {
+        long records = Math.min(windowRecords, recordCount - firstRecord);
+        try {
+            window = file.map(FileChannel.MapMode.READ_ONLY, firstRecord * RECORD_SIZE, records * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowFirstRecord = firstRecord;
+    }
+}
@@ -0,0 +1,200 @@
+package elevatorsim;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records each event as a fixed-width 20 byte binary record, which is far smaller and
+ * cheaper to produce than the text log. Records are little-endian and laid out as:
+ *
+ * <pre>
+ *   int   time
+ *   byte  record type (one of the *_RECORD constants)
+ *   byte  direction ordinal, or -1 when the record type has none
+ *   short elevator ID, the number of passengers for FLOOR_BUTTON records, or -1 for
+ *         other building-wide records
+ *   int   floor
+ *   int   destination floor, or -1 when the record type has none
+ *   int   the request's weight in kilograms, or -1 when the record type has none
+ * </pre>
+ *
+ * A trace is just these records back to back, with no header. FLOOR_BUTTON records double
+ * as requests, so BinaryTraceReader can replay the requests of a recorded run.
+ */
+final class BinaryTraceWriter implements ElevatorEventListener, Closeable, Flushable {
+
+    static final int RECORD_SIZE = 20;
+
+    static final byte FLOOR_BUTTON_RECORD = 0;
+    static final byte REQUEST_ASSIGNED_RECORD = 1;
+    static final byte ELEVATOR_BUTTON_RECORD = 2;
+    static final byte PASSENGERS_EXIT_RECORD = 3;
+    static final byte PASSENGER_ENTER_RECORD = 4;
+    static final byte STATUS_RECORD = 5;
+    static final byte REQUEST_RETURNED_RECORD = 6;
+
+    private static final int BUFFER_RECORDS = 4096;
+    private static final int MAPPED_WINDOW_RECORDS = 1 << 20;
+
+    private final WritableByteChannel channel; // Null when writing through a file mapping
+    private final FileChannel file; // Null when writing to a channel
+    private final int windowRecords;
+    private ByteBuffer buffer;
+    private long windowStart; // File offset of the mapped window
+
+    BinaryTraceWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.file = null;
+        this.windowRecords = 0;
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    BinaryTraceWriter(OutputStream out) {
+        this(Channels.newChannel(out));
+    }
+
+    private BinaryTraceWriter(FileChannel file, int windowRecords) throws IOException {
+        this.channel = null;
+        this.file = file;
+        this.windowRecords = windowRecords;
+        mapWindow(0);
+    }
+
+    /*
+     * Writes the trace straight into a memory mapping of the file, one window at a time, so
+     * records are never copied through a separate buffer. Any existing file is replaced.
+     */
+    static BinaryTraceWriter map(Path path) throws IOException {
+        return map(path, MAPPED_WINDOW_RECORDS);
+    }
+
+    static BinaryTraceWriter map(Path path, int windowRecords) throws IOException {
+        return new BinaryTraceWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                windowRecords);
+    }
+
+    /*
+     * Writes a request as a FLOOR_BUTTON record at the request's own time, which is how
+     * request traces are built without running a simulation.
+     */
+    void writeRequest(MultiElevatorController.Request request) {
+        onFloorButtonPressed(request.time, request);
+    }
+
+    @Override
+    public void onFloorButtonPressed(int time, MultiElevatorController.Request request) {
+        if (request.passengers > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("A binary trace holds at most " + Short.MAX_VALUE
+                    + " passengers per request, got " + request);
+        }
+        write(time, FLOOR_BUTTON_RECORD, request.direction.ordinal(), request.passengers, request.floor,
+                request.destination, request.weight);
+    }
+
+    @Override
+    public void onRequestAssigned(int time, int elevatorID, MultiElevatorController.Request request) {
+        write(time, REQUEST_ASSIGNED_RECORD, request.direction.ordinal(), elevatorID, request.floor,
+                request.destination, request.weight);
+    }
+
+    @Override
+    public void onElevatorButtonPressed(int time, int elevatorID, int floor) {
+        write(time, ELEVATOR_BUTTON_RECORD, -1, elevatorID, floor, -1, -1);
+    }
+
+    @Override
+    public void onPassengersExit(int time, int elevatorID, int floor) {
+        write(time, PASSENGERS_EXIT_RECORD, -1, elevatorID, floor, -1, -1);
+    }
+
+    @Override
+    public void onPassengerEnter(int time, int elevatorID, MultiElevatorController.Request request) {
+        write(time, PASSENGER_ENTER_RECORD, request.direction.ordinal(), elevatorID, request.floor,
+                request.destination, request.weight);
+    }
+
+    @Override
+    public void onRequestReturned(int time, int elevatorID, MultiElevatorController.Request request) {
+        write(time, REQUEST_RETURNED_RECORD, request.direction.ordinal(), elevatorID, request.floor,
+                request.destination, request.weight);
+    }
+
+    @Override
+    public void onStatus(int time, int elevatorID, int floor, MultiElevatorController.Direction direction) {
+        write(time, STATUS_RECORD, direction.ordinal(), elevatorID, floor, -1, -1);
+    }
+
+    @Override
+    public void onRunComplete(int time) {
+        flush();
+    }
+
+    /*
+     * Writes out buffered records. A mapped trace has nothing to flush: its pages are written
+     * back by the operating system.
+     */
+    @Override
+    public void flush() {
+        if (file != null) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            // The last window is mapped past the final record, so cut the file back to size
+            long length = windowStart + buffer.position();
+            buffer = null;
+            file.truncate(length);
+            file.close();
+            return;
+        }
+        flush();
+        channel.close();
+    }
+
+    private void mapWindow(long start) throws IOException {
+        windowStart = start;
+        buffer = file.map(FileChannel.MapMode.READ_WRITE, start, (long) RECORD_SIZE * windowRecords)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void write(int time, byte type, int direction, int elevatorID, int floor, int destination,
+            int weight) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            if (file != null) {
+                try {
+                    mapWindow(windowStart + buffer.position());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                flush();
+            }
+        }
+        buffer.putInt(time)
+                .put(type)
+                .put((byte) direction)
+                .putShort((short) elevatorID)
+                .putInt(floor)
+                .putInt(destination)
+                .putInt(weight);
+    }
+}
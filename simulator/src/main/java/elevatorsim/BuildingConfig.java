@@ -0,0 +1,93 @@
+package elevatorsim;
+
+/**
+ * Describes the building being simulated and the cars that serve it. A controller and
+ * all of its elevators share one read-only instance, so buildings of different shapes
+ * can be simulated side by side in the same JVM.
+ *
+ * @param numFloors       number of floors served, counting the bottom floor
+ * @param bottomFloor     number of the lowest floor (e.g. 1, or 0 for a ground floor, or negative for basements)
+ * @param numElevators    number of cars in the bank
+ * @param carCapacity     maximum number of passengers a car carries at once
+ * @param ratedLoad       maximum weight a car carries at once, in kilograms
+ * @param floorTravelTime time units a car takes to travel one floor
+ * @param doorOpenTime    time units between a car stopping and its doors being fully open
+ * @param doorCloseTime   time units between the doors starting to close and the car leaving
+ * @param simTime         default number of time units a simulation runs for
+ * @param kinematics      how cars accelerate and how long passengers take to board, or null
+ *                        for cars that take floorTravelTime for every floor and board instantly.
+ *                        When set, a time unit is one of its ticks and floorTravelTime is unused.
+ */
+record BuildingConfig(int numFloors, int bottomFloor, int numElevators, int carCapacity,
+        int ratedLoad, int floorTravelTime, int doorOpenTime, int doorCloseTime, int simTime,
+        Kinematics kinematics) {
+
+    /*
+     * The 10 story, 2 car building the test cases are written against. Cars take 8 people
+     * or 630 kg, move one floor per time unit, and stopping costs no time.
+     */
+    static final BuildingConfig DEFAULT = new BuildingConfig(10, 1, 2, 8, 630, 1, 0, 0, 25, null);
+
+    BuildingConfig {
+        if (numFloors < 1) {
+            throw new IllegalArgumentException("numFloors must be at least 1, got " + numFloors);
+        }
+        if (numElevators < 1) {
+            throw new IllegalArgumentException("numElevators must be at least 1, got " + numElevators);
+        }
+        if (carCapacity < 1) {
+            throw new IllegalArgumentException("carCapacity must be at least 1, got " + carCapacity);
+        }
+        if (ratedLoad < 1) {
+            throw new IllegalArgumentException("ratedLoad must be at least 1, got " + ratedLoad);
+        }
+        if (floorTravelTime < 1) {
+            throw new IllegalArgumentException("floorTravelTime must be at least 1, got " + floorTravelTime);
+        }
+        if (doorOpenTime < 0 || doorCloseTime < 0) {
+            throw new IllegalArgumentException("Door times must not be negative");
+        }
+        if (simTime < 0) {
+            throw new IllegalArgumentException("simTime must not be negative, got " + simTime);
+        }
+    }
+
+    int topFloor() {
+        return bottomFloor + numFloors - 1;
+    }
+
+    BuildingConfig withFloors(int numFloors, int bottomFloor) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withNumElevators(int numElevators) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withCarCapacity(int carCapacity) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withRatedLoad(int ratedLoad) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withTimings(int floorTravelTime, int doorOpenTime, int doorCloseTime) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withSimTime(int simTime) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+
+    BuildingConfig withKinematics(Kinematics kinematics) {
+        return new BuildingConfig(numFloors, bottomFloor, numElevators, carCapacity, ratedLoad,
+                floorTravelTime, doorOpenTime, doorCloseTime, simTime, kinematics);
+    }
+}
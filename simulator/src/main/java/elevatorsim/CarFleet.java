@@ -0,0 +1,130 @@
+package elevatorsim;
+
+import elevatorsim.MultiElevatorController.Direction;
+
+/**
+ * The state of a controller's cars that dispatch and stepping look at for every car, kept
+ * in parallel primitive arrays indexed by elevator ID rather than spread over the cars'
+ * objects, so going over a fleet of thousands of cars reads a few contiguous arrays. Each
+ * Elevator is a view of its slot, and the only one that writes it.
+ *
+ * Cars that run on threads of their own only write their own slots, and the controller
+ * only reads them once every car has finished its step.
+ *
+ * When the JVM is started with --add-modules jdk.incubator.vector, dispatch over the
+ * whole fleet is scored in SIMD lanes by VectorFleetScorer. Otherwise, or with
+ * -Delevatorsim.scalarDispatch=true, it is scored one car at a time. Both pick the same car.
+ */
+final class CarFleet {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    static final int IDLE = Direction.IDLE.ordinal();
+    // Checked without touching VectorFleetScorer, which can't be loaded without the module
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !Boolean.getBoolean("elevatorsim.scalarDispatch");
+
+    final int[] floor;
+    // Direction ordinals, as ints so they line up with the other arrays in SIMD lanes
+    final int[] direction;
+    final int[] passengersOnBoard;
+    final int[] loadOnBoard; // Kilograms
+    // Hall calls assigned and not yet picked up, plus car buttons pressed
+    final int[] requests;
+    // Bumped whenever a car's floor, direction or stops change, and the version the
+    // controller last dispatched against
+    final long[] stateVersion;
+    final long[] dispatchedVersion;
+
+    // A fleet with room for cars with IDs below size
+    CarFleet(int size) {
+        this.floor = new int[size];
+        this.direction = new int[size];
+        this.passengersOnBoard = new int[size];
+        this.loadOnBoard = new int[size];
+        this.requests = new int[size];
+        this.stateVersion = new long[size];
+        this.dispatchedVersion = new long[size];
+    }
+
+    int size() {
+        return floor.length;
+    }
+
+    Direction direction(int car) {
+        return DIRECTIONS[direction[car]];
+    }
+
+    // Whether leastRequests scores in SIMD lanes
+    static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    // Copies one car's slot from another fleet, apart from the versions
+    void copyCar(CarFleet source, int car) {
+        floor[car] = source.floor[car];
+        direction[car] = source.direction[car];
+        passengersOnBoard[car] = source.passengersOnBoard[car];
+        loadOnBoard[car] = source.loadOnBoard[car];
+        requests[car] = source.requests[car];
+    }
+
+    /*
+     * Returns the ID of the first car that has changed since the controller last
+     * dispatched against it, starting at from, or -1 if none has.
+     */
+    int nextChanged(int from) {
+        for (int car = from; car < stateVersion.length; car++) {
+            if (stateVersion[car] != dispatchedVersion[car]) {
+                return car;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Up/down collective dispatch over the whole fleet: of the cars with room for the
+     * passengers that are idle or heading towards the call in its direction, returns the
+     * one with the fewest requests, the lowest ID on a tie, or -1 if none is.
+     */
+    int leastRequests(int callFloor, Direction callDirection, int passengers, int weight, int carCapacity,
+            int ratedLoad) {
+        long bestKey = VECTORIZED
+                ? VectorFleetScorer.leastRequestsKey(this, callFloor, callDirection, passengers, weight, carCapacity,
+                        ratedLoad)
+                : leastRequestsKey(0, callFloor, callDirection, passengers, weight, carCapacity, ratedLoad);
+        return bestKey == Long.MAX_VALUE ? -1 : (int) bestKey;
+    }
+
+    // leastRequests one car at a time, whether or not the Vector API is there
+    int scalarLeastRequests(int callFloor, Direction callDirection, int passengers, int weight, int carCapacity,
+            int ratedLoad) {
+        long bestKey = leastRequestsKey(0, callFloor, callDirection, passengers, weight, carCapacity, ratedLoad);
+        return bestKey == Long.MAX_VALUE ? -1 : (int) bestKey;
+    }
+
+    /*
+     * The best car from the given one on as a key of its request count in the high half and
+     * its ID in the low half, so ties go to the lower ID, or Long.MAX_VALUE if no car is
+     * suitable. Each car's suitability and request count are folded into its key without
+     * branching, so the loop is a plain minimum over the arrays.
+     */
+    long leastRequestsKey(int from, int callFloor, Direction callDirection, int passengers, int weight,
+            int carCapacity, int ratedLoad) {
+        long bestKey = Long.MAX_VALUE;
+        int wanted = callDirection.ordinal();
+        boolean up = callDirection == Direction.UP;
+        boolean down = callDirection == Direction.DOWN;
+        // Room is checked against what is left, the same way as in VectorFleetScorer
+        int passengerRoom = carCapacity - passengers;
+        int loadRoom = ratedLoad - weight;
+        for (int car = from; car < floor.length; car++) {
+            boolean room = passengersOnBoard[car] <= passengerRoom & loadOnBoard[car] <= loadRoom;
+            int heading = direction[car];
+            boolean towards = heading == wanted & (up & floor[car] <= callFloor | down & floor[car] >= callFloor);
+            boolean suitable = room & (heading == IDLE | towards);
+            long key = suitable ? ((long) requests[car] << 32) | car : Long.MAX_VALUE;
+            bestKey = Math.min(bestKey, key);
+        }
+        return bestKey;
+    }
+}
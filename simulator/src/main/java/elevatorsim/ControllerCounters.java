@@ -0,0 +1,24 @@
+package elevatorsim;
+
+/**
+ * Counts of the work a controller's hot paths have done, kept as plain counters that cost
+ * an increment each, so they stay on for every run. Tick times are only measured while a
+ * flight recording takes Tick events or timing is switched on, and dispatch times only
+ * while timing is on. Both are 0 otherwise.
+ *
+ * @param ticks              simulated time units in which at least one event ran
+ * @param tickNanos          wall clock time spent in the timed ticks
+ * @param maxTickNanos       longest timed tick
+ * @param dispatchPasses     times the waiting hall calls were offered to the cars
+ * @param dispatchNanos      wall clock time spent in the timed dispatch passes
+ * @param maxDispatchNanos   longest timed dispatch pass
+ * @param dispatchDecisions  times a dispatch strategy was asked to choose a car
+ * @param callsAssigned      hall calls given to a car
+ * @param callsWaiting       hall calls waiting for a car now
+ * @param peakCallsWaiting   most hall calls waiting at the start of a dispatch pass
+ * @param directionChanges   times a car changed direction, summed over all cars
+ */
+record ControllerCounters(long ticks, long tickNanos, long maxTickNanos, long dispatchPasses,
+        long dispatchNanos, long maxDispatchNanos, long dispatchDecisions, long callsAssigned, int callsWaiting,
+        int peakCallsWaiting, long directionChanges) {
+}
@@ -0,0 +1,145 @@
+package elevatorsim;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder events for the controller's hot paths, so a replay can be profiled with
+ * the standard JFR tooling, e.g. java -XX:StartFlightRecording=filename=run.jfr ... and
+ * then jfr print --events elevatorsim.DispatchPass run.jfr.
+ *
+ * The controller only creates an event while isRecording() says a recording is running,
+ * so outside a recording the hot paths neither allocate events nor ask whether they are
+ * enabled. None of them take stack traces, since they are recorded far too often for that
+ * to be cheap.
+ */
+final class ControllerEvents {
+
+    private static final String CATEGORY = "Elevator Simulator";
+
+    // Kept up to date by the listener below, whichever thread starts or stops a recording
+    private static volatile boolean recording;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                updateRecording();
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                updateRecording();
+            }
+        });
+    }
+
+    private ControllerEvents() {
+    }
+
+    // Whether any flight recording is running, and so might take these events
+    static boolean isRecording() {
+        return recording;
+    }
+
+    private static void updateRecording() {
+        boolean running = false;
+        for (Recording each : FlightRecorder.getFlightRecorder().getRecordings()) {
+            running |= each.getState() == RecordingState.RUNNING;
+        }
+        recording = running;
+    }
+
+    @Name("elevatorsim.Tick")
+    @Label("Tick")
+    @Description("Every event of one simulated time unit")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Tick extends Event {
+        @Label("Simulation Time")
+        int time;
+
+        @Label("Events")
+        int events;
+
+        @Label("Calls Waiting")
+        @Description("Hall calls waiting for a car at the end of the time unit")
+        int callsWaiting;
+    }
+
+    @Name("elevatorsim.DispatchPass")
+    @Label("Dispatch Pass")
+    @Description("Waiting hall calls offered to the cars")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class DispatchPass extends Event {
+        @Label("Simulation Time")
+        int time;
+
+        @Label("Calls Waiting")
+        @Description("Hall calls waiting for a car when the pass began")
+        int callsWaiting;
+
+        @Label("Calls Assigned")
+        int callsAssigned;
+
+        @Label("Cars Changed")
+        @Description("Cars whose state changed since the previous pass")
+        int carsChanged;
+    }
+
+    @Name("elevatorsim.DispatchDecision")
+    @Label("Dispatch Decision")
+    @Description("A dispatch strategy choosing a car for one hall call")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class DispatchDecision extends Event {
+        @Label("Simulation Time")
+        int time;
+
+        @Label("Floor")
+        int floor;
+
+        @Label("Direction")
+        String direction;
+
+        @Label("Passengers")
+        int passengers;
+
+        @Label("Candidates")
+        int candidates;
+
+        @Label("Elevator")
+        @Description("The car chosen, or -1 if the call is left waiting")
+        int elevatorID;
+
+        @Label("Strategy")
+        String strategy;
+    }
+
+    @Name("elevatorsim.DirectionChange")
+    @Label("Direction Change")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class DirectionChange extends Event {
+        @Label("Elevator")
+        int elevatorID;
+
+        @Label("Floor")
+        int floor;
+
+        @Label("From")
+        String from;
+
+        @Label("To")
+        String to;
+    }
+}
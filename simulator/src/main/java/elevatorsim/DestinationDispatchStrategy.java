@@ -0,0 +1,69 @@
+package elevatorsim;
+
+import java.util.List;
+
+import elevatorsim.MultiElevatorController.Elevator;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Destination dispatch: passengers enter their destination at the landing, so a hall call
+ * is assigned knowing where it is going, and passengers with the same or nearby
+ * destinations are grouped into the same car. Cars then make fewer stops per round trip,
+ * which is where the extra up-peak handling capacity comes from.
+ *
+ * Each car is scored by the journey time EtaDispatchStrategy estimates for the new
+ * passengers, plus the delay they would cause everyone the car already carries or has
+ * been assigned: the time of every stop the car would not otherwise make, and of every
+ * floor its trip would have to be stretched by, there and back. A car that already stops
+ * at both floors of the call and reaches far enough costs its passengers nothing, so
+ * requests from one landing to one destination keep going to the same car.
+ *
+ * Unlike the other strategies, a car that already has a call from the same floor and
+ * direction gets no preference, since the passengers behind that call may be going
+ * somewhere else entirely. An instance keeps per car caches, so each controller needs
+ * its own instance.
+ */
+final class DestinationDispatchStrategy implements DispatchStrategy {
+
+    private final EtaDispatchStrategy eta = new EtaDispatchStrategy();
+
+    @Override
+    public Elevator selectElevator(MultiElevatorController controller, Request request, List<Elevator> candidates) {
+        BuildingConfig config = controller.getConfig();
+        double floorTime = EtaDispatchStrategy.floorTime(config);
+        double stopTime = EtaDispatchStrategy.stopTime(config);
+
+        Elevator bestElevator = null;
+        double bestCost = Double.MAX_VALUE;
+        for (Elevator elevator : candidates) {
+            // A car with no room for these passengers right now would only hand the call back
+            if (!elevator.hasRoomFor(request)) {
+                continue;
+            }
+            int addedStops = 0;
+            if (!elevator.willStopAt(request.floor)) {
+                addedStops++;
+            }
+            if (!elevator.willStopAt(request.destination)) {
+                addedStops++;
+            }
+            int high = Math.max(request.floor, request.destination);
+            int low = Math.min(request.floor, request.destination);
+            int addedFloors = Math.max(0, high - elevator.highestPlannedFloor())
+                    + Math.max(0, elevator.lowestPlannedFloor() - low);
+            double delay = addedStops * stopTime + 2 * addedFloors * floorTime;
+            double cost = eta.estimateJourneyTime(elevator, request, config)
+                    + elevator.getPassengersAssigned() * delay;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestElevator = elevator;
+            }
+        }
+        return bestElevator;
+    }
+
+    @Override
+    public DispatchStrategy forkedCopy() {
+        return new DestinationDispatchStrategy();
+    }
+}
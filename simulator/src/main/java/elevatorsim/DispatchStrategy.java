@@ -0,0 +1,35 @@
+package elevatorsim;
+
+import java.util.List;
+
+/**
+ * Decides which car serves a hall call. The controller offers every new request to all of
+ * its cars. A request no car takes waits in the controller's floorRequestsQueue, and is
+ * offered again only to the cars whose state has changed since. So a strategy must judge
+ * each car by that car's own state: a car that turned a request down and hasn't changed
+ * since would turn it down again.
+ */
+interface DispatchStrategy {
+
+    /*
+     * Returns the car among the candidates that should serve the request, or null to leave
+     * the request in the controller's queue so it is offered again later. Candidates are in
+     * elevator ID order.
+     */
+    MultiElevatorController.Elevator selectElevator(MultiElevatorController controller,
+            MultiElevatorController.Request request, List<MultiElevatorController.Elevator> candidates);
+
+    default MultiElevatorController.Elevator selectElevator(MultiElevatorController controller,
+            MultiElevatorController.Request request) {
+        return selectElevator(controller, request, controller.getElevators());
+    }
+
+    /*
+     * A strategy for a fork of a controller this strategy dispatches for. Strategies that
+     * keep per car caches return a new instance, since the fork's cars are different cars
+     * that may reach the same state versions.
+     */
+    default DispatchStrategy forkedCopy() {
+        return this;
+    }
+}
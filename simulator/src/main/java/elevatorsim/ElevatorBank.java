@@ -0,0 +1,48 @@
+package elevatorsim;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of cars in a ZonedBuilding that serve the same floors, such as a low rise zone,
+ * an express shuttle between the lobby and a sky lobby, or the local cars above it.
+ *
+ * @param name         shown in results, e.g. "low rise"
+ * @param config       the cars, and the floors their shaft runs between. Floors in that range
+ *                     the bank doesn't serve are passed through, as in an express zone.
+ * @param servedFloors the floors the bank's cars open their doors at, in ascending order
+ */
+record ElevatorBank(String name, BuildingConfig config, List<Integer> servedFloors) {
+
+    ElevatorBank {
+        servedFloors = List.copyOf(servedFloors);
+        if (servedFloors.size() < 2) {
+            throw new IllegalArgumentException("Bank " + name + " must serve at least 2 floors");
+        }
+        for (int i = 0; i < servedFloors.size(); i++) {
+            int floor = servedFloors.get(i);
+            if (floor < config.bottomFloor() || floor > config.topFloor()) {
+                throw new IllegalArgumentException("Bank " + name + " serves floor " + floor + " outside its shaft");
+            }
+            if (i > 0 && floor <= servedFloors.get(i - 1)) {
+                throw new IllegalArgumentException("Bank " + name + " must list its floors in ascending order");
+            }
+        }
+    }
+
+    /*
+     * A bank that serves every floor of its shaft.
+     */
+    static ElevatorBank serving(String name, BuildingConfig config) {
+        Integer[] floors = new Integer[config.numFloors()];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = config.bottomFloor() + i;
+        }
+        return new ElevatorBank(name, config, List.of(floors));
+    }
+
+    boolean serves(int floor) {
+        return floor >= config.bottomFloor() && floor <= config.topFloor()
+                && Collections.binarySearch(servedFloors, floor) >= 0;
+    }
+}
@@ -0,0 +1,356 @@
+package elevatorsim;
+
+import java.util.*;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * This class models a basic elevator controller that is deciding where to move a single
+ * elevator car based on UP/DOWN buttons pushed on a floor and elevator buttons pushed within the elevator.
+ *
+ * The car runs on the same engine as the cars of a MultiElevatorController: the controller
+ * is a building with one car, where every hall call goes to that car as soon as it is made.
+ */
+public class ElevatorController {
+
+    // Every call goes to the only car, which never turns one down since it has no load limit
+    private static final DispatchStrategy ONLY_CAR = (controller, request, candidates) ->
+            candidates.isEmpty() ? null : candidates.get(0);
+
+    private final MultiElevatorController controller;
+
+    public ElevatorController() {
+        this(BuildingConfig.DEFAULT);
+    }
+
+    /*
+     * Only the floors, speed and door times of the config apply here, since this
+     * controller always drives a single elevator that takes everyone waiting. Its car moves
+     * one floor per floorTravelTime even if the config has Kinematics.
+     */
+    public ElevatorController(BuildingConfig config) {
+        this.controller = new MultiElevatorController(config.withNumElevators(1).withCarCapacity(Integer.MAX_VALUE)
+                .withRatedLoad(Integer.MAX_VALUE).withKinematics(null));
+        controller.setDispatchStrategy(ONLY_CAR);
+    }
+
+    public void handleFloorButtonPress(Request myRequest) {
+        controller.submitRequest(myRequest);
+    }
+
+    public void handleElevatorButtonPress(int destination) {
+        controller.submitElevatorButtonPress(0, destination);
+    }
+
+    /*
+     * Sets where the controller reports events. By default they are ignored.
+     */
+    public void setEventListener(ElevatorEventListener eventListener) {
+        controller.setEventListener(eventListener);
+    }
+
+    public SimulationMetrics getMetrics() {
+        return controller.getMetrics();
+    }
+
+    private ArrayList<Integer> getFloorsVisited() {
+        return controller.getElevators().get(0).getFloorsVisited();
+    }
+
+    private void initializeVariables(int initialFloor) {
+        controller.initializeVariables(initialFloor);
+    }
+
+    /*
+     * Runs the simulation for totalSimTime time units. Rather than stepping through every
+     * time unit, the simulation jumps from one event to the next, so stretches where the
+     * elevator is idle and no requests are pending cost nothing.
+     */
+    public void runSimulation(Map<Integer, List<Request>> mapOfTimesToRequest, int totalSimTime) {
+        controller.runSimulation(mapOfTimesToRequest, totalSimTime);
+    }
+
+    /*
+     * The car's status at every time unit of each test case, as time:floor followed by
+     * the first letter of its direction, as this controller reported it back when it had
+     * an engine of its own.
+     */
+    private static final String[] LEGACY_STATUS = {
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8U 8:9U 9:10D 10:9D 11:8D 12:7D 13:6D 14:5D 15:4D 16:3D 17:2I",
+            "0:10D 1:9D 2:8D 3:7D 4:6D 5:5D 6:4D 7:3D 8:2D 9:1U 10:2U 11:3U 12:4I",
+            "0:5U 1:6U 2:7U 3:8U 4:9U 5:10D 6:9D 7:8D 8:7D 9:6D 10:5D 11:4D 12:3D 13:2U 14:3U 15:4I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8U 8:9U 9:10D 10:9D 11:8D 12:7D 13:6D 14:5D 15:4D 16:3D 17:2D 18:1I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8D 8:7D 9:6D 10:5D 11:4D 12:3D 13:2I",
+            "0:5I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8U 8:9U 9:10D 10:9D 11:8D 12:7D 13:6D 14:5D 15:4D 16:3D 17:2D 18:1I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8U 8:9U 9:10I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6U 6:7U 7:8U 8:9U 9:10D 10:9D 11:8D 12:7D 13:6D 14:5D 15:4D 16:3D 17:2I",
+            "0:1U 1:2U 2:3U 3:4U 4:5U 5:6D 6:5D 7:4I" };
+
+    /*
+     * Runs a test case's requests for the default simTime, printing events to the console,
+     * and checks the car's status at every time unit against LEGACY_STATUS.
+     */
+    private static void runConforming(ElevatorController controller, Map<Integer, List<Request>> mapOfTimesToRequest,
+            int testCase) {
+        StringBuilder status = new StringBuilder();
+        controller.setEventListener(ElevatorEventListener.both(new TextEventLogger(System.out),
+                new ElevatorEventListener() {
+                    @Override
+                    public void onStatus(int time, int elevatorID, int floor, Direction direction) {
+                        status.append(status.isEmpty() ? "" : " ").append(time).append(':').append(floor)
+                                .append(direction.name().charAt(0));
+                    }
+                }));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        assert status.toString().equals(LEGACY_STATUS[testCase]) : status;
+    }
+
+    /*
+     * Test Case 0: Elevator starts on floor 1.
+     * Time 0: 2 users on Floor 1 hit UP to go to floors 10 and 3.
+     * Time 1: user on Floor 3 hits DOWN to go to floor 2.
+     * Expected sequence of floors visited: 3 -> 10 -> 2.
+     */
+    public static void testCase0() {
+
+        System.out.println("START TEST CASE 0:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT);
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0),
+                new Request(1, Direction.UP, 3, 0)));
+        mapOfTimesToRequest.put(1,
+                Arrays.asList(new Request(3, Direction.DOWN, 2, 1)));
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList(1, 3, 10, 2));
+        runConforming(controller, mapOfTimesToRequest, 0);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 0:");
+
+    }
+
+    /*
+     * Test Case 1: Elevator starts on floor 10.
+     * Time 0: 3 users on Floor 10 hit Down to go to floors 1, 3, and 4.
+     * Time 1: user on Floor 3 hits Up to go to floor 4.
+     * Expected sequence of floors visited: 10 -> 4 -> 3 -> 1 -> 4.
+     */
+    public static void testCase1() {
+        System.out.println("START TEST CASE 1:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT);
+        controller.initializeVariables(10);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(10, Direction.DOWN, 1, 0),
+                new Request(10, Direction.DOWN, 3, 0),
+                new Request(10, Direction.DOWN, 4, 0)));
+        mapOfTimesToRequest.put(1,
+                Arrays.asList(new Request(3, Direction.UP, 4, 1)));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList(10, 4, 3, 1, 4));
+        runConforming(controller, mapOfTimesToRequest, 1);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+
+        System.out.println("END TEST CASE 1");
+    }
+
+    /*
+     * Test Case 2: Elevator starts on floor 5,
+     * Time 0: User on Floor 8 presses Down to go to 2, user on Floor 7 presses UP
+     * to go to 10
+     * Time 0: User on Floor 3 presses UP to go to 4 and User on Floor 3 presses
+     * DOWN to go to 2.
+     * Expected sequence of floors visited: 7 -> 8 -> 10 -> 3 -> 2 -> 4.
+     */
+    public static void testCase2() {
+        System.out.println("START TEST CASE 2:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT);
+        controller.initializeVariables(5);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(8, Direction.DOWN, 2, 0),
+                new Request(7, Direction.UP, 10, 0),
+                new Request(3, Direction.UP, 4, 0),
+                new Request(3, Direction.DOWN, 2, 0)));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList(7, 8,  10, 3, 2,  4));
+        runConforming(controller, mapOfTimesToRequest, 2);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 2");
+    }
+
+    /*
+     * Test Case 3: Elevator starts on floor 1,
+     * Time 0: User on Floor 3 presses Down to go to 2
+     * Time 1: User on Floor 10 presses Down to go to 1.
+     * Expected sequence of floors visited: 3-> 10 ->2 ->1.
+     */
+    public static void testCase3() {
+        System.out.println("START TEST CASE 3:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(3, Direction.DOWN, 2, 0)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(10, Direction.DOWN, 1, 1)));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList(3,10,2,1));
+        runConforming(controller, mapOfTimesToRequest, 3);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 3");
+    }
+
+    /*
+     * Test Case 4: Elevator starts on floor 1,
+     * Time 0: User on Floor 5 presses Up to go to 8
+     * Time 0: User on Floor 3 presses Down to go to 2
+     * Time 0: User on Floor 1 presses Up to go to 3
+     * Time 1: User on Floor 2 presses Up to to 4
+     * Elevator should go to floor 1, 2, 3, 4, 5, 8, 2
+     */
+    public static void testCase4() {
+        System.out.println("START TEST CASE 4:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.UP, 8, 0),
+                new Request(3, Direction.DOWN, 2, 0),
+                new Request(1, Direction.UP, 3, 0)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(2, Direction.UP, 4, 1)));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 8, 2));
+        runConforming(controller, mapOfTimesToRequest, 4);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 4");
+    }
+
+    /*
+     * Test Case 5: Elevator starts on floor 5
+     * User on Floor 5 presses Up to go to 5
+     * Expected sequence of floors visited: 5
+     */
+    public static void testCase5() {
+        System.out.println("START TEST CASE 5:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(5);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.IDLE, 5, 0)));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList( 5));
+        runConforming(controller, mapOfTimesToRequest, 5);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 5");
+    }
+
+    /*
+     * Test Case 6: Elevator starts on floor 1
+     * Time 0: User on Floor 2 presses Up to go to 7, User on Floor 5 presses Down to go to 1, User on Floor 8 presses Up to go to 10
+     * Expected sequence of floors visited: 2 -> 5 -> 7 -> 8 -> 10 -> 1
+     */
+    public static void testCase6() {
+        System.out.println("START TEST CASE 6:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(2, Direction.UP, 7, 0),
+                new Request(5, Direction.DOWN, 1, 0),
+                new Request(8, Direction.UP, 10, 0)
+                ));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList( 2, 5, 7, 8, 10, 1));
+        runConforming(controller, mapOfTimesToRequest, 6);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 6");
+    }
+    /*
+     * Test Case 7: Elevator starts on floor 1
+     * Time 0: User on Floor 1 presses Up to go to 10
+     * Expected sequence of floors visited: 1 -> 10
+     */
+    public static void testCase7() {
+        System.out.println("START TEST CASE 7:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0)
+                ));
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList( 1, 10));
+        runConforming(controller, mapOfTimesToRequest, 7);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 7");
+    }
+    /*
+     * Test Case 8: Elevator starts on floor 1
+     * Time 0: User on Floor 1 presses Up to go to 10
+     * Time 1: User on Floor 3 presses Down to go to 2
+     * Time 2: User on Floor 5 presses Up to go to 6
+     * Expected sequence of floors visited: 1 -> 3 -> 5 -> 6 -> 10 -> 2
+     */
+
+     public static void testCase8() {
+        System.out.println("START TEST CASE 8:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0)
+                ));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                    new Request(3, Direction.DOWN, 2, 1)
+                    ));
+        mapOfTimesToRequest.put(2, Arrays.asList(
+                    new Request(5, Direction.UP, 6, 2)
+                    ));
+                    
+
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList( 1, 3, 5, 6, 10, 2));
+        runConforming(controller, mapOfTimesToRequest, 8);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 8");
+    }
+
+    /*
+     * Test Case 9: Elevator starts on floor 5
+     * Time 0: User on Floor 5 presses Up to go to 6
+     * Time 0: User on Floor 5 presses Down to go to 4
+     * Expected sequence of floors visited: 5 -> 6 -> 4
+     */
+    public static void testCase9() {
+        System.out.println("START TEST CASE 9:");
+        ElevatorController controller = new ElevatorController(BuildingConfig.DEFAULT); 
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.UP, 6, 0),
+                new Request(5, Direction.DOWN, 4, 0)
+                ));
+                    
+        ArrayList<Integer> expectedFloorsVisited = new ArrayList<>(Arrays.asList( 5, 6, 4));
+        runConforming(controller, mapOfTimesToRequest, 9);
+        assert controller.getFloorsVisited().equals(expectedFloorsVisited);
+        System.out.println("END TEST CASE 9");
+    }
+
+
+    public static void main(String[] args) {
+        testCase0();
+        testCase1();
+        testCase2();
+        testCase3();
+        testCase4();
+        testCase5();
+        testCase6();
+        testCase7();
+        testCase8();
+        testCase9();
+    }
+}
\ No newline at end of file
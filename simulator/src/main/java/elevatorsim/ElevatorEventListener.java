@@ -0,0 +1,117 @@
+package elevatorsim;
+
+/**
+ * Receives what happens inside a MultiElevatorController as it happens. Every method
+ * has an empty default, and events are passed as plain values, so a controller with
+ * the NONE listener does no string building or I/O at all.
+ */
+interface ElevatorEventListener {
+
+    /*
+     * Used by controllers unless another listener is set. Ignores every event.
+     */
+    ElevatorEventListener NONE = new ElevatorEventListener() {
+    };
+
+    /*
+     * A listener that passes every event to first and then to second.
+     */
+    static ElevatorEventListener both(ElevatorEventListener first, ElevatorEventListener second) {
+        return new ElevatorEventListener() {
+            @Override
+            public void onFloorButtonPressed(int time, MultiElevatorController.Request request) {
+                first.onFloorButtonPressed(time, request);
+                second.onFloorButtonPressed(time, request);
+            }
+
+            @Override
+            public void onRequestAssigned(int time, int elevatorID, MultiElevatorController.Request request) {
+                first.onRequestAssigned(time, elevatorID, request);
+                second.onRequestAssigned(time, elevatorID, request);
+            }
+
+            @Override
+            public void onElevatorButtonPressed(int time, int elevatorID, int floor) {
+                first.onElevatorButtonPressed(time, elevatorID, floor);
+                second.onElevatorButtonPressed(time, elevatorID, floor);
+            }
+
+            @Override
+            public void onPassengersExit(int time, int elevatorID, int floor) {
+                first.onPassengersExit(time, elevatorID, floor);
+                second.onPassengersExit(time, elevatorID, floor);
+            }
+
+            @Override
+            public void onPassengerEnter(int time, int elevatorID, MultiElevatorController.Request request) {
+                first.onPassengerEnter(time, elevatorID, request);
+                second.onPassengerEnter(time, elevatorID, request);
+            }
+
+            @Override
+            public void onPassengerExit(int time, int elevatorID, MultiElevatorController.Request request) {
+                first.onPassengerExit(time, elevatorID, request);
+                second.onPassengerExit(time, elevatorID, request);
+            }
+
+            @Override
+            public void onRequestReturned(int time, int elevatorID, MultiElevatorController.Request request) {
+                first.onRequestReturned(time, elevatorID, request);
+                second.onRequestReturned(time, elevatorID, request);
+            }
+
+            @Override
+            public void onStatus(int time, int elevatorID, int floor, MultiElevatorController.Direction direction) {
+                first.onStatus(time, elevatorID, floor, direction);
+                second.onStatus(time, elevatorID, floor, direction);
+            }
+
+            @Override
+            public void onRunComplete(int time) {
+                first.onRunComplete(time);
+                second.onRunComplete(time);
+            }
+        };
+    }
+
+    default void onFloorButtonPressed(int time, MultiElevatorController.Request request) {
+    }
+
+    default void onRequestAssigned(int time, int elevatorID, MultiElevatorController.Request request) {
+    }
+
+    default void onElevatorButtonPressed(int time, int elevatorID, int floor) {
+    }
+
+    default void onPassengersExit(int time, int elevatorID, int floor) {
+    }
+
+    default void onPassengerEnter(int time, int elevatorID, MultiElevatorController.Request request) {
+    }
+
+    /*
+     * Reported for every request whose passengers got out, after onPassengersExit for the
+     * floor they got out at.
+     */
+    default void onPassengerExit(int time, int elevatorID, MultiElevatorController.Request request) {
+    }
+
+    /*
+     * Reported when a car gives a hall call back to be dispatched again because the
+     * request's passengers don't fit.
+     */
+    default void onRequestReturned(int time, int elevatorID, MultiElevatorController.Request request) {
+    }
+
+    /*
+     * Reported each time a car leaves a floor, after it has picked its next direction.
+     */
+    default void onStatus(int time, int elevatorID, int floor, MultiElevatorController.Direction direction) {
+    }
+
+    /*
+     * Called when runSimulation returns. Listeners that buffer output flush it here.
+     */
+    default void onRunComplete(int time) {
+    }
+}
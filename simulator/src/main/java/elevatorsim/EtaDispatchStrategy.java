@@ -0,0 +1,181 @@
+package elevatorsim;
+
+import java.util.Arrays;
+import java.util.List;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Elevator;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Assigns each hall call to the car that is estimated to get the passenger to their
+ * destination soonest, counting both the wait for the car and the ride.
+ *
+ * The estimate follows the route a car is already committed to under the up/down
+ * collective rules in updateElevatorDirection: it keeps going in its direction up to its
+ * furthest stop, then turns around. Every floor travelled costs floorTravelTime and every
+ * stop made on the way costs the door open and close times. In a building with Kinematics,
+ * floors cost their time at rated speed instead, and every stop also costs the time lost
+ * slowing down and speeding up again.
+ *
+ * The turnaround floors of each car are cached until the car's state changes, and stops
+ * along a stretch of the route are counted straight from the car's stop bitsets, so
+ * scoring a car is a handful of word operations rather than a replay of its route.
+ * An instance keeps this cache per car, so each controller needs its own instance.
+ */
+final class EtaDispatchStrategy implements DispatchStrategy {
+
+    // Per car, indexed by elevator ID: the state version the cached route was computed
+    // for, and the highest and lowest floors the route reaches
+    private long[] cachedVersion = new long[0];
+    private int[] routeTop = new int[0];
+    private int[] routeBottom = new int[0];
+
+    @Override
+    public Elevator selectElevator(MultiElevatorController controller, Request request, List<Elevator> candidates) {
+        // A car that will already stop for this floor and direction costs nothing extra, as
+        // long as these passengers fit in it too
+        Elevator matchingElevator = controller.getHallCallOwner(request.floor, request.direction);
+        if (matchingElevator != null && matchingElevator.hasRoomFor(request)) {
+            return matchingElevator;
+        }
+        BuildingConfig config = controller.getConfig();
+        ensureCapacity(controller.getElevators().size());
+
+        Elevator bestElevator = null;
+        double bestTime = Double.MAX_VALUE;
+        for (Elevator elevator : candidates) {
+            // A car with no room for these passengers right now would only hand the call back
+            if (!elevator.hasRoomFor(request)) {
+                continue;
+            }
+            double time = estimateJourneyTime(elevator, request, config);
+            if (time < bestTime) {
+                bestTime = time;
+                bestElevator = elevator;
+            }
+        }
+        return bestElevator;
+    }
+
+    @Override
+    public DispatchStrategy forkedCopy() {
+        return new EtaDispatchStrategy();
+    }
+
+    /*
+     * Estimates how long the request's passengers would take to reach their destination if
+     * the car took them, counting from now.
+     */
+    double estimateJourneyTime(Elevator elevator, Request request, BuildingConfig config) {
+        ensureCapacity(elevator.getElevatorID() + 1);
+        updateRoute(elevator);
+        return estimatePickupTime(elevator, request, config) + estimateRideTime(elevator, request, config);
+    }
+
+    private void ensureCapacity(int numElevators) {
+        if (cachedVersion.length < numElevators) {
+            int oldLength = cachedVersion.length;
+            cachedVersion = Arrays.copyOf(cachedVersion, numElevators);
+            routeTop = Arrays.copyOf(routeTop, numElevators);
+            routeBottom = Arrays.copyOf(routeBottom, numElevators);
+            // Make sure new entries do not look up to date
+            Arrays.fill(cachedVersion, oldLength, numElevators, -1);
+        }
+    }
+
+    private void updateRoute(Elevator elevator) {
+        int id = elevator.getElevatorID();
+        if (cachedVersion[id] == elevator.getStateVersion()) {
+            return;
+        }
+        int floor = elevator.getCurrentFloor();
+        if (elevator.hasStops()) {
+            routeTop[id] = Math.max(elevator.highestStop(), floor);
+            routeBottom[id] = Math.min(elevator.lowestStop(), floor);
+        } else {
+            routeTop[id] = floor;
+            routeBottom[id] = floor;
+        }
+        cachedVersion[id] = elevator.getStateVersion();
+    }
+
+    /*
+     * Estimates how long until the car opens its doors on the request's floor.
+     */
+    private double estimatePickupTime(Elevator elevator, Request request, BuildingConfig config) {
+        int id = elevator.getElevatorID();
+        int floor = elevator.getCurrentFloor();
+        int pickup = request.floor;
+        int distance;
+        int stops;
+        if (elevator.getDirection() == Direction.IDLE) {
+            distance = Math.abs(pickup - floor);
+            stops = 0;
+        } else if (elevator.getDirection() == Direction.UP) {
+            int top = routeTop[id];
+            if (pickup >= floor && request.direction != Direction.DOWN) {
+                // Picked up on the way up
+                distance = pickup - floor;
+                stops = elevator.stopsBetween(floor, pickup - 1);
+            } else if (request.direction != Direction.UP) {
+                // Picked up on the way back down, after the car's highest stop
+                top = Math.max(top, pickup);
+                distance = (top - floor) + (top - pickup);
+                stops = elevator.stopsBetween(Math.min(pickup + 1, floor), top);
+            } else {
+                // An up call below the car: up to the highest stop, down to the lowest, then back up
+                int bottom = Math.min(routeBottom[id], pickup);
+                distance = (top - floor) + (top - bottom) + (pickup - bottom);
+                stops = elevator.stopsBetween(bottom, top);
+            }
+        } else {
+            int bottom = routeBottom[id];
+            if (pickup <= floor && request.direction != Direction.UP) {
+                // Picked up on the way down
+                distance = floor - pickup;
+                stops = elevator.stopsBetween(pickup + 1, floor);
+            } else if (request.direction != Direction.DOWN) {
+                // Picked up on the way back up, after the car's lowest stop
+                bottom = Math.min(bottom, pickup);
+                distance = (floor - bottom) + (pickup - bottom);
+                stops = elevator.stopsBetween(bottom, Math.max(pickup - 1, floor));
+            } else {
+                // A down call above the car: down to the lowest stop, up to the highest, then back down
+                int top = Math.max(routeTop[id], pickup);
+                distance = (floor - bottom) + (top - bottom) + (top - pickup);
+                stops = elevator.stopsBetween(bottom, top);
+            }
+        }
+        return distance * floorTime(config) + stops * stopTime(config);
+    }
+
+    /*
+     * Estimates how long the passenger rides, from the doors opening at the pickup floor to
+     * the doors opening at the destination, given the stops the car already has in between.
+     */
+    private double estimateRideTime(Elevator elevator, Request request, BuildingConfig config) {
+        int low = Math.min(request.floor, request.destination);
+        int high = Math.max(request.floor, request.destination);
+        int stops = 1 + elevator.stopsBetween(low + 1, high - 1);
+        return (high - low) * floorTime(config) + stops * stopTime(config);
+    }
+
+    // Time units per floor travelled
+    static double floorTime(BuildingConfig config) {
+        Kinematics kinematics = config.kinematics();
+        if (kinematics == null) {
+            return config.floorTravelTime();
+        }
+        return kinematics.floorTimeAtSpeed() / kinematics.tickLength();
+    }
+
+    // Time units per stop made
+    static double stopTime(BuildingConfig config) {
+        Kinematics kinematics = config.kinematics();
+        if (kinematics == null) {
+            return config.doorOpenTime() + config.doorCloseTime();
+        }
+        return config.doorOpenTime() + config.doorCloseTime() + kinematics.stopPenalty() / kinematics.tickLength();
+    }
+}
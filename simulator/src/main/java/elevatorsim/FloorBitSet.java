@@ -0,0 +1,231 @@
+package elevatorsim;
+
+import java.util.Arrays;
+
+/**
+ * A set of floors backed by a long[] bitset. Floors are stored relative to the
+ * building's bottom floor, so adding, removing and looking up a stop, as well as
+ * asking whether any stop lies above or below a floor, are plain word operations
+ * that never box an Integer or allocate.
+ */
+final class FloorBitSet {
+
+    private final int bottomFloor;
+    private final int numFloors;
+    private final long[] words;
+    private int size;
+
+    FloorBitSet(int bottomFloor, int topFloor) {
+        if (topFloor < bottomFloor) {
+            throw new IllegalArgumentException("topFloor " + topFloor + " is below bottomFloor " + bottomFloor);
+        }
+        this.bottomFloor = bottomFloor;
+        this.numFloors = topFloor - bottomFloor + 1;
+        this.words = new long[(numFloors + 63) >>> 6];
+    }
+
+    /*
+     * Adds the floor to the set. Returns true if it was not already present.
+     */
+    boolean add(int floor) {
+        int index = indexOf(floor);
+        if (index < 0 || index >= numFloors) {
+            throw new IllegalArgumentException("Floor " + floor + " is outside the building");
+        }
+        long bit = 1L << index;
+        long word = words[index >>> 6];
+        if ((word & bit) != 0) {
+            return false;
+        }
+        words[index >>> 6] = word | bit;
+        size++;
+        return true;
+    }
+
+    /*
+     * Removes the floor from the set. Returns true if it was present.
+     */
+    boolean remove(int floor) {
+        if (!contains(floor)) {
+            return false;
+        }
+        int index = indexOf(floor);
+        words[index >>> 6] &= ~(1L << index);
+        size--;
+        return true;
+    }
+
+    boolean contains(int floor) {
+        int index = indexOf(floor);
+        if (index < 0 || index >= numFloors) {
+            return false;
+        }
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Makes this set hold the same floors as the source, which must span the same floors
+    void copyFrom(FloorBitSet source) {
+        if (source.bottomFloor != bottomFloor || source.numFloors != numFloors) {
+            throw new IllegalArgumentException("Sets span different floors");
+        }
+        System.arraycopy(source.words, 0, words, 0, words.length);
+        size = source.size;
+    }
+
+    void clear() {
+        Arrays.fill(words, 0L);
+        size = 0;
+    }
+
+    boolean anyAbove(int floor) {
+        return nextSetIndex(indexOf(floor) + 1) >= 0;
+    }
+
+    boolean anyBelow(int floor) {
+        return previousSetIndex(indexOf(floor) - 1) >= 0;
+    }
+
+    /*
+     * Returns the highest floor in the set. The set must not be empty.
+     */
+    int highest() {
+        int index = previousSetIndex(numFloors - 1);
+        if (index < 0) {
+            throw new IllegalStateException("No floors in the set");
+        }
+        return index + bottomFloor;
+    }
+
+    /*
+     * Returns the lowest floor in the set. The set must not be empty.
+     */
+    int lowest() {
+        int index = nextSetIndex(0);
+        if (index < 0) {
+            throw new IllegalStateException("No floors in the set");
+        }
+        return index + bottomFloor;
+    }
+
+    /*
+     * Returns the lowest floor in the set above the given floor. There must be one.
+     */
+    int lowestAbove(int floor) {
+        int index = nextSetIndex(indexOf(floor) + 1);
+        if (index < 0) {
+            throw new IllegalStateException("No floors above " + floor);
+        }
+        return index + bottomFloor;
+    }
+
+    /*
+     * Returns the highest floor in the set below the given floor. There must be one.
+     */
+    int highestBelow(int floor) {
+        int index = previousSetIndex(indexOf(floor) - 1);
+        if (index < 0) {
+            throw new IllegalStateException("No floors below " + floor);
+        }
+        return index + bottomFloor;
+    }
+
+    /*
+     * Counts the floors between fromFloor and toFloor, inclusive, that are in either set.
+     * Both sets must cover the same floors.
+     */
+    static int countUnion(FloorBitSet a, FloorBitSet b, int fromFloor, int toFloor) {
+        int from = Math.max(a.indexOf(fromFloor), 0);
+        int to = Math.min(a.indexOf(toFloor), a.numFloors - 1);
+        if (from > to) {
+            return 0;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        int count = 0;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long word = a.words[w] | b.words[w];
+            if (w == firstWord) {
+                word &= -1L << from;
+            }
+            if (w == lastWord) {
+                word &= -1L >>> (63 - (to & 63));
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /*
+     * Returns the floor in the set closest to the given floor. When a floor above and a
+     * floor below are equally close, the lower one wins. The set must not be empty.
+     */
+    int nearest(int floor) {
+        int below = previousSetIndex(indexOf(floor));
+        int above = nextSetIndex(indexOf(floor));
+        if (below < 0 && above < 0) {
+            throw new IllegalStateException("No floors in the set");
+        }
+        if (below < 0) {
+            return above + bottomFloor;
+        }
+        if (above < 0) {
+            return below + bottomFloor;
+        }
+        int target = indexOf(floor);
+        return (above - target < target - below) ? above + bottomFloor : below + bottomFloor;
+    }
+
+    private int indexOf(int floor) {
+        return floor - bottomFloor;
+    }
+
+    // Lowest set index that is >= from, or -1 if there is none
+    private int nextSetIndex(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= numFloors) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    // Highest set index that is <= from, or -1 if there is none
+    private int previousSetIndex(int from) {
+        if (from >= numFloors) {
+            from = numFloors - 1;
+        }
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (w-- == 0) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package elevatorsim;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import elevatorsim.MultiElevatorController.Direction;
+
+/**
+ * Which cars have been assigned a hall call from each floor in each direction. Cars keep it
+ * up to date as they are assigned calls and serve them, so dispatch can find the car that
+ * already stops for a call without asking every car in the bank.
+ *
+ * Cars that run on threads of their own update it at the same time, each only ever
+ * setting and clearing its own bit, so the bits are kept in atomic words.
+ */
+final class HallCallIndex {
+
+    private final int bottomFloor;
+    private final int numFloors;
+    private final int wordsPerFloor;
+    // Bits of car IDs, wordsPerFloor words per direction and floor - bottomFloor
+    private final AtomicLongArray owners;
+
+    HallCallIndex(BuildingConfig config) {
+        this(config, config.numElevators());
+    }
+
+    // An index with room for cars with IDs below numCars
+    HallCallIndex(BuildingConfig config, int numCars) {
+        this.bottomFloor = config.bottomFloor();
+        this.numFloors = config.numFloors();
+        this.wordsPerFloor = Math.max(1, (numCars + Long.SIZE - 1) / Long.SIZE);
+        this.owners = new AtomicLongArray(Direction.values().length * numFloors * wordsPerFloor);
+    }
+
+    void add(int floor, Direction direction, int elevatorID) {
+        owners.getAndAccumulate(word(floor, direction, elevatorID), 1L << elevatorID, (bits, bit) -> bits | bit);
+    }
+
+    void remove(int floor, Direction direction, int elevatorID) {
+        owners.getAndAccumulate(word(floor, direction, elevatorID), ~(1L << elevatorID), (bits, mask) -> bits & mask);
+    }
+
+    /*
+     * Returns the lowest ID of the cars assigned a call from the floor in the direction, or
+     * -1 if there is none.
+     */
+    int firstOwner(int floor, Direction direction) {
+        int index = floor - bottomFloor;
+        if (index < 0 || index >= numFloors) {
+            return -1;
+        }
+        int first = word(floor, direction, 0);
+        for (int i = 0; i < wordsPerFloor; i++) {
+            long bits = owners.get(first + i);
+            if (bits != 0) {
+                return i * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    // Makes this index hold the same cars as the source, which must be the same shape
+    void copyFrom(HallCallIndex source) {
+        if (source.owners.length() != owners.length()) {
+            throw new IllegalArgumentException("Indexes are of different buildings");
+        }
+        for (int i = 0; i < owners.length(); i++) {
+            owners.set(i, source.owners.get(i));
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < owners.length(); i++) {
+            owners.set(i, 0);
+        }
+    }
+
+    private int word(int floor, Direction direction, int elevatorID) {
+        return (direction.ordinal() * numFloors + floor - bottomFloor) * wordsPerFloor + elevatorID / Long.SIZE;
+    }
+}
@@ -0,0 +1,157 @@
+package elevatorsim;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * The hall calls assigned to one car, kept in an array per floor indexed like FloorBitSet,
+ * each in the order the calls were assigned. Taking the calls at a floor touches only
+ * that floor's array, and once the arrays have grown to the car's usual load, adding and
+ * taking calls allocates nothing.
+ *
+ * The oldest call is found by looking at every call, which is cheap for the handful of
+ * calls a car holds and is only needed when the car picks a new direction.
+ */
+final class HallCallQueue {
+
+    private static final Request[] NO_REQUESTS = {};
+    private static final long[] NO_SEQUENCES = {};
+
+    private final int bottomFloor;
+    // Per floor: the calls and when each was assigned, counting calls assigned to the car
+    private final Request[][] requests;
+    private final long[][] sequences;
+    private final int[] counts;
+    private int size;
+    private long nextSequence;
+    // Where findOldest found the oldest call: its floor's index and its place at that floor
+    private int oldestIndex;
+    private int oldestPosition;
+
+    HallCallQueue(int bottomFloor, int topFloor) {
+        if (topFloor < bottomFloor) {
+            throw new IllegalArgumentException("topFloor " + topFloor + " is below bottomFloor " + bottomFloor);
+        }
+        int numFloors = topFloor - bottomFloor + 1;
+        this.bottomFloor = bottomFloor;
+        this.requests = new Request[numFloors][];
+        this.sequences = new long[numFloors][];
+        this.counts = new int[numFloors];
+        Arrays.fill(requests, NO_REQUESTS);
+        Arrays.fill(sequences, NO_SEQUENCES);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(Request request) {
+        int index = request.floor - bottomFloor;
+        int count = counts[index];
+        if (count == requests[index].length) {
+            int capacity = Math.max(4, count * 2);
+            requests[index] = Arrays.copyOf(requests[index], capacity);
+            sequences[index] = Arrays.copyOf(sequences[index], capacity);
+        }
+        requests[index][count] = request;
+        sequences[index][count] = nextSequence++;
+        counts[index] = count + 1;
+        size++;
+    }
+
+    /*
+     * Removes and returns the call at the floor that was assigned first, or null if the
+     * floor has none.
+     */
+    Request pollAt(int floor) {
+        int index = floor - bottomFloor;
+        return counts[index] == 0 ? null : removeAt(index, 0);
+    }
+
+    /*
+     * The call made earliest, with calls made at the same time taken in the order they were
+     * assigned, or null if there are none.
+     */
+    Request peek() {
+        return findOldest() ? requests[oldestIndex][oldestPosition] : null;
+    }
+
+    // Removes and returns the call peek would return
+    Request poll() {
+        return findOldest() ? removeAt(oldestIndex, oldestPosition) : null;
+    }
+
+    // Hands every call to the action, floor by floor from the bottom
+    void forEach(Consumer<Request> action) {
+        for (int index = 0; index < counts.length; index++) {
+            for (int i = 0; i < counts[index]; i++) {
+                action.accept(requests[index][i]);
+            }
+        }
+    }
+
+    void clear() {
+        for (int index = 0; index < counts.length; index++) {
+            Arrays.fill(requests[index], 0, counts[index], null);
+            counts[index] = 0;
+        }
+        size = 0;
+    }
+
+    /*
+     * Makes this queue's calls those of the source, a queue for the same floors, in the
+     * same order. The arrays of this queue are reused where they are big enough.
+     */
+    void copyFrom(HallCallQueue source) {
+        for (int index = 0; index < counts.length; index++) {
+            int count = source.counts[index];
+            if (requests[index].length < count) {
+                requests[index] = new Request[source.requests[index].length];
+                sequences[index] = new long[source.sequences[index].length];
+            }
+            System.arraycopy(source.requests[index], 0, requests[index], 0, count);
+            System.arraycopy(source.sequences[index], 0, sequences[index], 0, count);
+            Arrays.fill(requests[index], count, Math.max(count, counts[index]), null);
+            counts[index] = count;
+        }
+        size = source.size;
+        nextSequence = source.nextSequence;
+    }
+
+    // Finds the oldest call, returning false if there are no calls
+    private boolean findOldest() {
+        if (size == 0) {
+            return false;
+        }
+        int oldestTime = Integer.MAX_VALUE;
+        long oldestSequence = Long.MAX_VALUE;
+        for (int index = 0; index < counts.length; index++) {
+            for (int i = 0; i < counts[index]; i++) {
+                int time = requests[index][i].time;
+                if (time < oldestTime || (time == oldestTime && sequences[index][i] < oldestSequence)) {
+                    oldestIndex = index;
+                    oldestPosition = i;
+                    oldestTime = time;
+                    oldestSequence = sequences[index][i];
+                }
+            }
+        }
+        return true;
+    }
+
+    private Request removeAt(int index, int position) {
+        Request request = requests[index][position];
+        int count = --counts[index];
+        System.arraycopy(requests[index], position + 1, requests[index], position, count - position);
+        System.arraycopy(sequences[index], position + 1, sequences[index], position, count - position);
+        requests[index][count] = null;
+        size--;
+        return request;
+    }
+}
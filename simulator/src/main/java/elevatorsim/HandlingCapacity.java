@@ -0,0 +1,64 @@
+package elevatorsim;
+
+/**
+ * The classic up-peak estimate of how many people a bank of cars moves out of the lobby,
+ * worked out in closed form from the building's Kinematics instead of by simulation.
+ *
+ * Every trip starts at the bottom floor with the same number of passengers, whose
+ * destinations are spread evenly over the floors above. A round trip then takes
+ * 2 H tv + (S + 1) ts + 2 P tp, where H is the expected highest floor reached, S the
+ * expected number of stops, tv the time per floor at rated speed, ts the time each stop
+ * costs and tp the time each of the P passengers takes to get in and out.
+ *
+ * @param roundTripTime      seconds for a car to leave the lobby, serve its passengers and be back
+ * @param interval           seconds between cars leaving the lobby
+ * @param fiveMinuteCapacity passengers the bank moves out of the lobby in five minutes
+ */
+record HandlingCapacity(double roundTripTime, double interval, double fiveMinuteCapacity) {
+
+    /*
+     * Estimates the building's up-peak capacity when every car leaves the lobby with the
+     * given number of passengers. The config must have Kinematics.
+     */
+    static HandlingCapacity upPeak(BuildingConfig config, double passengersPerTrip) {
+        Kinematics kinematics = config.kinematics();
+        if (kinematics == null) {
+            throw new IllegalArgumentException("Handling capacity needs a building with Kinematics");
+        }
+        if (config.numFloors() < 2) {
+            throw new IllegalArgumentException("Handling capacity needs floors above the lobby");
+        }
+        if (!(passengersPerTrip > 0) || passengersPerTrip > config.carCapacity()) {
+            throw new IllegalArgumentException("passengersPerTrip must be between 0 and carCapacity, got "
+                    + passengersPerTrip);
+        }
+        int floorsAbove = config.numFloors() - 1;
+        double p = passengersPerTrip;
+        double expectedStops = floorsAbove * (1 - Math.pow(1 - 1.0 / floorsAbove, p));
+        double expectedHighestFloor = floorsAbove;
+        for (int i = 1; i < floorsAbove; i++) {
+            expectedHighestFloor -= Math.pow((double) i / floorsAbove, p);
+        }
+        double stopTime = kinematics.stopPenalty()
+                + kinematics.seconds(config.doorOpenTime() + config.doorCloseTime());
+        double roundTripTime = 2 * expectedHighestFloor * kinematics.floorTimeAtSpeed()
+                + (expectedStops + 1) * stopTime
+                + 2 * p * kinematics.transferTime();
+        double interval = roundTripTime / config.numElevators();
+        return new HandlingCapacity(roundTripTime, interval, 300 * p / interval);
+    }
+
+    /*
+     * Estimates capacity with cars leaving the lobby 80% full, the usual design assumption.
+     */
+    static HandlingCapacity upPeak(BuildingConfig config) {
+        return upPeak(config, 0.8 * config.carCapacity());
+    }
+
+    /*
+     * Five minute capacity as a percentage of the building's population, the HC5% figure.
+     */
+    double percentOfPopulation(int population) {
+        return 100 * fiveMinuteCapacity / population;
+    }
+}
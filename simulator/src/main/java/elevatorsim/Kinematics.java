@@ -0,0 +1,106 @@
+package elevatorsim;
+
+/**
+ * How a car moves and how long passengers take to get in and out. A run from one stop to
+ * the next follows a jerk-limited profile: acceleration builds up at the jerk rate to the
+ * rated acceleration, the car cruises at rated speed if the run is long enough to reach it,
+ * and it slows down as the mirror image of speeding up. Short runs never reach rated speed,
+ * and the shortest never reach rated acceleration either, so every stop costs more than the
+ * floors it covers.
+ *
+ * Distances are in metres and times in seconds. The simulation clock counts ticks of
+ * tickLength seconds, and times are rounded up to whole ticks when events are scheduled.
+ *
+ * @param floorHeight  distance between adjacent floors
+ * @param ratedSpeed   top speed of a car, in m/s
+ * @param acceleration rated acceleration and deceleration, in m/s^2
+ * @param jerk         rate at which acceleration changes, in m/s^3
+ * @param transferTime time each passenger takes to get in or out of a car
+ * @param tickLength   seconds per tick of the simulation clock
+ */
+record Kinematics(double floorHeight, double ratedSpeed, double acceleration, double jerk,
+        double transferTime, double tickLength) {
+
+    /*
+     * A typical 2.5 m/s office car with 3.5 m floors, on a clock that ticks every 100 ms.
+     */
+    static final Kinematics OFFICE = new Kinematics(3.5, 2.5, 1.0, 1.5, 1.2, 0.1);
+
+    Kinematics {
+        if (!(floorHeight > 0) || !(ratedSpeed > 0) || !(acceleration > 0) || !(jerk > 0) || !(tickLength > 0)) {
+            throw new IllegalArgumentException("floorHeight, ratedSpeed, acceleration, jerk and tickLength must be"
+                    + " positive");
+        }
+        if (!(transferTime >= 0)) {
+            throw new IllegalArgumentException("transferTime must not be negative, got " + transferTime);
+        }
+    }
+
+    /*
+     * Time a run over the given number of floors takes, from the car starting to move to it
+     * standing level at the destination.
+     */
+    double runTime(int floors) {
+        return runTimeForDistance(floors * floorHeight);
+    }
+
+    double runTimeForDistance(double distance) {
+        if (distance <= 0) {
+            return 0;
+        }
+        double peakSpeed = peakSpeed(distance);
+        double accelerationTime = accelerationTime(peakSpeed);
+        return 2 * accelerationTime + (distance - peakSpeed * accelerationTime) / peakSpeed;
+    }
+
+    /*
+     * Time a car takes per floor at rated speed, and the extra time each stop costs for
+     * slowing down and speeding up again compared to passing at rated speed. Together they
+     * estimate a journey of many floors and stops without working out every run.
+     */
+    double floorTimeAtSpeed() {
+        return floorHeight / ratedSpeed;
+    }
+
+    double stopPenalty() {
+        return accelerationTime(ratedSpeed);
+    }
+
+    // Rounds a duration up to whole clock ticks
+    int ticks(double seconds) {
+        return (int) Math.ceil(seconds / tickLength - 1e-9);
+    }
+
+    double seconds(int ticks) {
+        return ticks * tickLength;
+    }
+
+    /*
+     * The highest speed reached on a run of the given length: rated speed if the run is long
+     * enough, otherwise the speed at which the car has to start slowing down.
+     */
+    private double peakSpeed(double distance) {
+        if (distance >= ratedSpeed * accelerationTime(ratedSpeed)) {
+            return ratedSpeed;
+        }
+        // The run covers peakSpeed * accelerationTime(peakSpeed). Solve for peakSpeed, first
+        // assuming rated acceleration is reached
+        double a = acceleration;
+        double speed = a / 2 * (-a / jerk + Math.sqrt((a / jerk) * (a / jerk) + 4 * distance / a));
+        if (speed >= a * a / jerk) {
+            return speed;
+        }
+        return Math.pow(distance * Math.sqrt(jerk) / 2, 2.0 / 3);
+    }
+
+    // Time to get from standing to the given speed
+    private double accelerationTime(double speed) {
+        double peakAcceleration = peakAcceleration(speed);
+        return speed / peakAcceleration + peakAcceleration / jerk;
+    }
+
+    // Speeding up to low speeds ends before acceleration has built up to its rated value
+    private double peakAcceleration(double speed) {
+        return Math.min(acceleration, Math.sqrt(speed * jerk));
+    }
+}
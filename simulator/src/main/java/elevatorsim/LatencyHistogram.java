@@ -0,0 +1,148 @@
+package elevatorsim;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative int values in the style of HdrHistogram. Values below 128
+ * are counted exactly. Above that, each power of two is split into 64 equal buckets, so
+ * any value is reported to within 1/64 (about 1.6%) of its true size. The bucket array
+ * grows to fit the largest value recorded and is capped at 1,664 entries for values up
+ * to Integer.MAX_VALUE. Recording allocates nothing unless the array has to grow.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >>> 1;
+    private static final int MAX_BUCKETS = bucketIndex(Integer.MAX_VALUE) + 1;
+
+    private long[] counts = new long[SUB_BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max;
+
+    void record(int value) {
+        record(value, 1);
+    }
+
+    // Records the same value count times
+    void record(int value, int count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Latencies can't be negative, got " + value);
+        }
+        int index = bucketIndex(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(Math.max(counts.length * 2, index + 1), MAX_BUCKETS));
+        }
+        counts[index] += count;
+        totalCount += count;
+        sum += (long) value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // A histogram with the same values recorded, that records independently from here on
+    LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.counts = counts.clone();
+        copy.totalCount = totalCount;
+        copy.sum = sum;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0;
+        min = Integer.MAX_VALUE;
+        max = 0;
+    }
+
+    long getCount() {
+        return totalCount;
+    }
+
+    double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    int getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    long getSum() {
+        return sum;
+    }
+
+    /*
+     * Returns, for each of the ascending bounds, how many recorded values are <= it. A
+     * bucket counts towards a bound only if its top value is <= the bound, so counts are
+     * exact for bounds below 128 and to within a bucket above that.
+     */
+    long[] countsAtOrBelow(int[] bounds) {
+        long[] result = new long[bounds.length];
+        long runningCount = 0;
+        int bound = 0;
+        for (int index = 0; index < counts.length && bound < bounds.length; index++) {
+            while (bound < bounds.length && highestValueInBucket(index) > bounds[bound]) {
+                result[bound++] = runningCount;
+            }
+            runningCount += counts[index];
+        }
+        while (bound < bounds.length) {
+            result[bound++] = runningCount;
+        }
+        return result;
+    }
+
+    /*
+     * Returns the smallest value v such that at least the given percentage of recorded values
+     * are <= v, rounded up to the top of v's bucket, but never above the largest value recorded.
+     */
+    int getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long runningCount = 0;
+        for (int index = 0; index < counts.length; index++) {
+            runningCount += counts[index];
+            if (runningCount >= countAtPercentile) {
+                return Math.min(highestValueInBucket(index), max);
+            }
+        }
+        return max;
+    }
+
+    /*
+     * Summarizes the histogram as a value that can be stored and compared.
+     */
+    LatencySummary summarize() {
+        return new LatencySummary(totalCount, getMean(), getValueAtPercentile(50), getValueAtPercentile(95),
+                getValueAtPercentile(99), getMax());
+    }
+
+    private static int bucketIndex(int value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value;
+        }
+        int shift = (31 - Integer.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (value >>> shift);
+    }
+
+    private static int highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long lowest = (long) (index - shift * SUB_BUCKET_HALF_COUNT) << shift;
+        return (int) Math.min(lowest + (1L << shift) - 1, Integer.MAX_VALUE);
+    }
+}
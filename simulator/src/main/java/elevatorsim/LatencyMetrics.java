@@ -0,0 +1,190 @@
+package elevatorsim;
+
+import java.util.Arrays;
+
+/**
+ * Wait, ride and journey times of every passenger a controller has delivered, kept as
+ * histograms for the whole run, for each car and for each floor passengers started from.
+ *
+ * Wait time runs from the hall call to boarding, ride time from boarding to alighting,
+ * and journey time is the two together. Memory use is bounded by the number of cars and
+ * floors, not by the number of passengers, so these stay on for every run.
+ *
+ * A copy shares its histograms with the metrics it was copied from, and whichever of the
+ * two records into a shared histogram first copies it, so snapshots of a controller don't
+ * copy histograms that neither side touches again.
+ */
+final class LatencyMetrics {
+
+    private static final int WAIT = 0;
+    private static final int RIDE = 1;
+    private static final int JOURNEY = 2;
+    // Stands in for the histograms of a car or floor nobody has been recorded for. Never recorded into.
+    private static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    private final BuildingConfig config;
+    private LatencyHistogram waitTimes = new LatencyHistogram();
+    private LatencyHistogram rideTimes = new LatencyHistogram();
+    private LatencyHistogram journeyTimes = new LatencyHistogram();
+    // Indexed by elevator ID and by floor - bottomFloor. Created the first time they are needed.
+    private final LatencyHistogram[][] byElevator;
+    private final LatencyHistogram[][] byFloor;
+    // Whether the histograms above are this instance's own, or still shared with a copy
+    private boolean ownsTotals = true;
+    private final boolean[] ownsByElevator;
+    private final boolean[] ownsByFloor;
+
+    LatencyMetrics(BuildingConfig config) {
+        this.config = config;
+        this.byElevator = new LatencyHistogram[config.numElevators()][];
+        this.byFloor = new LatencyHistogram[config.numFloors()][];
+        this.ownsByElevator = new boolean[byElevator.length];
+        this.ownsByFloor = new boolean[byFloor.length];
+    }
+
+    /*
+     * Records once for every passenger travelling on the request. Cars running as actors
+     * record from their own threads, so recording is synchronized.
+     */
+    synchronized void recordPassenger(int elevatorID, MultiElevatorController.Request request, int boardTime, int alightTime) {
+        int waitTime = boardTime - request.time;
+        int rideTime = alightTime - boardTime;
+        int passengers = request.passengers;
+        if (!ownsTotals) {
+            waitTimes = waitTimes.copy();
+            rideTimes = rideTimes.copy();
+            journeyTimes = journeyTimes.copy();
+            ownsTotals = true;
+        }
+        record(waitTimes, rideTimes, journeyTimes, waitTime, rideTime, passengers);
+        if (elevatorID >= 0 && elevatorID < byElevator.length) {
+            record(writable(byElevator, ownsByElevator, elevatorID), waitTime, rideTime, passengers);
+        }
+        int floorIndex = request.floor - config.bottomFloor();
+        if (floorIndex >= 0 && floorIndex < byFloor.length) {
+            record(writable(byFloor, ownsByFloor, floorIndex), waitTime, rideTime, passengers);
+        }
+    }
+
+    // Histograms still shared with a copy are let go of rather than cleared
+    void reset() {
+        if (ownsTotals) {
+            waitTimes.reset();
+            rideTimes.reset();
+            journeyTimes.reset();
+        } else {
+            waitTimes = new LatencyHistogram();
+            rideTimes = new LatencyHistogram();
+            journeyTimes = new LatencyHistogram();
+            ownsTotals = true;
+        }
+        resetAll(byElevator, ownsByElevator);
+        resetAll(byFloor, ownsByFloor);
+    }
+
+    /*
+     * Makes these metrics hold what the source holds, for a controller of the same
+     * building. Nothing is copied until one of the two records into a histogram.
+     */
+    synchronized void copyFrom(LatencyMetrics source) {
+        if (source.byElevator.length != byElevator.length || source.byFloor.length != byFloor.length) {
+            throw new IllegalArgumentException("Metrics are of different buildings");
+        }
+        waitTimes = source.waitTimes;
+        rideTimes = source.rideTimes;
+        journeyTimes = source.journeyTimes;
+        System.arraycopy(source.byElevator, 0, byElevator, 0, byElevator.length);
+        System.arraycopy(source.byFloor, 0, byFloor, 0, byFloor.length);
+        ownsTotals = false;
+        Arrays.fill(ownsByElevator, false);
+        Arrays.fill(ownsByFloor, false);
+        source.ownsTotals = false;
+        Arrays.fill(source.ownsByElevator, false);
+        Arrays.fill(source.ownsByFloor, false);
+    }
+
+    LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    LatencyHistogram getRideTimes() {
+        return rideTimes;
+    }
+
+    LatencyHistogram getJourneyTimes() {
+        return journeyTimes;
+    }
+
+    /*
+     * The per-car and per-floor histograms are empty if no passenger has been recorded for
+     * that car or floor yet. They are returned as they are, even when still shared with a
+     * copy, so reading them copies nothing. They are only for reading.
+     */
+    LatencyHistogram getWaitTimesForElevator(int elevatorID) {
+        return histogram(byElevator, elevatorID, WAIT);
+    }
+
+    LatencyHistogram getRideTimesForElevator(int elevatorID) {
+        return histogram(byElevator, elevatorID, RIDE);
+    }
+
+    LatencyHistogram getJourneyTimesForElevator(int elevatorID) {
+        return histogram(byElevator, elevatorID, JOURNEY);
+    }
+
+    LatencyHistogram getWaitTimesForFloor(int floor) {
+        return histogram(byFloor, floor - config.bottomFloor(), WAIT);
+    }
+
+    LatencyHistogram getRideTimesForFloor(int floor) {
+        return histogram(byFloor, floor - config.bottomFloor(), RIDE);
+    }
+
+    LatencyHistogram getJourneyTimesForFloor(int floor) {
+        return histogram(byFloor, floor - config.bottomFloor(), JOURNEY);
+    }
+
+    // One of the histograms at the index, or EMPTY if none have been created there yet
+    private static LatencyHistogram histogram(LatencyHistogram[][] table, int index, int kind) {
+        LatencyHistogram[] histograms = table[index];
+        return histograms == null ? EMPTY : histograms[kind];
+    }
+
+    // The histograms at the index, copied first if they are shared
+    private static LatencyHistogram[] writable(LatencyHistogram[][] table, boolean[] owned, int index) {
+        LatencyHistogram[] histograms = table[index];
+        if (histograms == null) {
+            table[index] = new LatencyHistogram[] { new LatencyHistogram(), new LatencyHistogram(),
+                    new LatencyHistogram() };
+            owned[index] = true;
+        } else if (!owned[index]) {
+            table[index] = new LatencyHistogram[] { histograms[WAIT].copy(), histograms[RIDE].copy(),
+                    histograms[JOURNEY].copy() };
+            owned[index] = true;
+        }
+        return table[index];
+    }
+
+    private static void record(LatencyHistogram[] histograms, int waitTime, int rideTime, int passengers) {
+        record(histograms[WAIT], histograms[RIDE], histograms[JOURNEY], waitTime, rideTime, passengers);
+    }
+
+    private static void record(LatencyHistogram wait, LatencyHistogram ride, LatencyHistogram journey,
+            int waitTime, int rideTime, int passengers) {
+        wait.record(waitTime, passengers);
+        ride.record(rideTime, passengers);
+        journey.record(waitTime + rideTime, passengers);
+    }
+
+    private static void resetAll(LatencyHistogram[][] table, boolean[] owned) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != null && owned[i]) {
+                for (LatencyHistogram histogram : table[i]) {
+                    histogram.reset();
+                }
+            } else {
+                table[i] = null;
+            }
+        }
+    }
+}
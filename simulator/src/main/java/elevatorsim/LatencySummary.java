@@ -0,0 +1,7 @@
+package elevatorsim;
+
+/**
+ * Percentiles of one LatencyHistogram, in simulation time units.
+ */
+record LatencySummary(long count, double mean, int p50, int p95, int p99, int max) {
+}
@@ -0,0 +1,70 @@
+package elevatorsim;
+
+import java.util.List;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Elevator;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * The controller's original dispatch rule: a request goes to the suitable car with the
+ * fewest requests, unless a car has already been assigned a request from the same floor
+ * in the same direction and has room for it, in which case that car takes this one too.
+ * If no car is suitable, the request waits. Cars without room for the request's
+ * passengers are not suitable.
+ *
+ * A call offered to the whole fleet is scored straight off the CarFleet arrays. Calls
+ * offered again to the cars that changed since go through the cars themselves, and both
+ * pick the same car.
+ */
+final class LeastRequestsDispatchStrategy implements DispatchStrategy {
+
+    @Override
+    public Elevator selectElevator(MultiElevatorController controller, Request request, List<Elevator> candidates) {
+        Elevator matchingElevator = controller.getHallCallOwner(request.floor, request.direction);
+        if (matchingElevator != null && matchingElevator.hasRoomFor(request)) {
+            return matchingElevator;
+        }
+
+        // Offered to every car, the fleet's arrays are scanned instead of the cars
+        if (candidates == controller.getElevators()) {
+            BuildingConfig config = controller.getConfig();
+            int elevatorID = controller.getFleet().leastRequests(request.floor, request.direction,
+                    request.passengers, request.weight, config.carCapacity(), config.ratedLoad());
+            return elevatorID >= 0 ? candidates.get(elevatorID) : null;
+        }
+
+        Elevator bestElevator = null;
+        int minRequests = Integer.MAX_VALUE;
+        for (Elevator elevator : candidates) {
+            if (isElevatorSuitableForRequest(elevator, request)) {
+                int totalRequests = elevator.numOfTotalRequests();
+                if (totalRequests < minRequests) {
+                    minRequests = totalRequests;
+                    bestElevator = elevator;
+                }
+            }
+        }
+        return bestElevator;
+    }
+
+    /*
+     * An elevator is suitable for a request if it is in the idle state or it is moving towards the request
+     */
+    private boolean isElevatorSuitableForRequest(Elevator elevator, Request request) {
+        if (!elevator.hasRoomFor(request)) {
+            return false;
+        }
+        if(elevator.getDirection() == Direction.IDLE) {
+            return true;
+        }
+        if (request.direction == Direction.UP) {
+            return (elevator.getDirection() == request.direction && elevator.getCurrentFloor() <= request.floor);
+                    
+        } else if (request.direction == Direction.DOWN) {
+            return (elevator.getDirection() == request.direction && elevator.getCurrentFloor() >= request.floor);
+                    
+        }
+        return false;
+    }
+}
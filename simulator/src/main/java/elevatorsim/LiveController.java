@@ -0,0 +1,201 @@
+package elevatorsim;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Runs a MultiElevatorController against button presses arriving live from any number of
+ * threads, such as feeds from real hall and car panels.
+ *
+ * Producers never touch the controller. Their calls go into lock-free ring buffers, and a
+ * single controller thread owns the controller outright: every tick it drains the calls
+ * that arrived, hands them to the controller and advances the simulation by one time
+ * unit. The tick path takes no locks and waits on nothing the producers hold, and a
+ * producer never blocks: when a buffer is full its call is refused and counted, and the
+ * producer decides whether to retry.
+ *
+ * The controller may only be read once the controller thread has stopped, or from the
+ * thread calling tick when it is driven by hand.
+ */
+final class LiveController implements AutoCloseable {
+
+    // Calls handed to the controller per tick at most, so a flood can't stall the clock
+    private static final int MAX_CALLS_PER_TICK = 4096;
+
+    /*
+     * A button pressed inside a car.
+     */
+    private record ElevatorButtonPress(int elevatorID, int floor) {
+    }
+
+    private final MultiElevatorController controller;
+    private final BuildingConfig config;
+    private final MpscRingBuffer<Request> hallCalls;
+    private final MpscRingBuffer<ElevatorButtonPress> carCalls;
+    // The controller's clock as last published by the controller thread, used to time calls
+    private volatile int currentTime;
+    private final LongAdder callsRefused = new LongAdder();
+    // Calls taken in so far. Only the thread ticking the controller writes it.
+    private volatile long callsAccepted;
+    private Thread controllerThread;
+    private volatile boolean running;
+    private MetricsEndpoint metricsEndpoint;
+
+    LiveController(BuildingConfig config, int bufferCapacity) {
+        this(new MultiElevatorController(config), bufferCapacity);
+    }
+
+    LiveController(MultiElevatorController controller, int bufferCapacity) {
+        this.controller = controller;
+        this.config = controller.getConfig();
+        this.hallCalls = new MpscRingBuffer<>(bufferCapacity);
+        this.carCalls = new MpscRingBuffer<>(bufferCapacity);
+        this.currentTime = controller.getCurrentTime();
+    }
+
+    /*
+     * Presses a floor's Up or Down button. Returns false if the call was refused because
+     * too many calls are waiting to be taken in. Safe to call from any thread.
+     */
+    boolean submitHallCall(int floor, Direction direction, int destination, int passengers) {
+        checkFloor(floor);
+        checkFloor(destination);
+        Request request = new Request(floor, direction, destination, currentTime, passengers);
+        if (request.passengers > config.carCapacity() || request.weight > config.ratedLoad()) {
+            throw new IllegalArgumentException("Request doesn't fit in an empty car: " + request);
+        }
+        return accept(hallCalls.offer(request));
+    }
+
+    boolean submitHallCall(int floor, Direction direction, int destination) {
+        return submitHallCall(floor, direction, destination, 1);
+    }
+
+    /*
+     * Presses a button inside a car. Returns false if the call was refused. Safe to call from
+     * any thread.
+     */
+    boolean submitCarCall(int elevatorID, int floor) {
+        if (elevatorID < 0 || elevatorID >= config.numElevators()) {
+            throw new IllegalArgumentException("No elevator " + elevatorID);
+        }
+        checkFloor(floor);
+        return accept(carCalls.offer(new ElevatorButtonPress(elevatorID, floor)));
+    }
+
+    private void checkFloor(int floor) {
+        if (floor < config.bottomFloor() || floor > config.topFloor()) {
+            throw new IllegalArgumentException("Floor " + floor + " is outside the building");
+        }
+    }
+
+    private boolean accept(boolean offered) {
+        if (!offered) {
+            callsRefused.increment();
+        }
+        return offered;
+    }
+
+    /*
+     * Takes in the calls that have arrived and advances the controller by one time unit.
+     * Only one thread may tick the controller, and not while the controller thread runs.
+     */
+    void tick() {
+        int calls = hallCalls.drain(controller::submitRequest, MAX_CALLS_PER_TICK);
+        calls += carCalls.drain(
+                call -> controller.submitElevatorButtonPress(call.elevatorID(), call.floor()), MAX_CALLS_PER_TICK);
+        if (calls > 0) {
+            callsAccepted += calls;
+        }
+        controller.runSimulation(RequestSource.NONE, 1);
+        currentTime = controller.getCurrentTime();
+        if (metricsEndpoint != null) {
+            metricsEndpoint.publishIfDue(this);
+        }
+    }
+
+    /*
+     * Publishes snapshots of the controller to the endpoint as it ticks, and times its
+     * dispatch passes for it. Must be called before the controller thread starts.
+     */
+    synchronized void publishMetricsTo(MetricsEndpoint metricsEndpoint) {
+        if (controllerThread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        this.metricsEndpoint = metricsEndpoint;
+        controller.setTiming(true);
+        metricsEndpoint.publish(this);
+    }
+
+    /*
+     * Starts the controller thread, which ticks once every tickNanos nanoseconds of wall
+     * clock time, or as fast as it can if tickNanos is 0.
+     */
+    synchronized void start(long tickNanos) {
+        if (controllerThread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        running = true;
+        controllerThread = new Thread(() -> run(tickNanos), "elevator-controller");
+        controllerThread.start();
+    }
+
+    private void run(long tickNanos) {
+        long nextTick = System.nanoTime();
+        while (running) {
+            tick();
+            if (tickNanos > 0) {
+                nextTick += tickNanos;
+                long sleep = nextTick - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(sleep);
+                }
+            }
+        }
+    }
+
+    /*
+     * Stops the controller thread once it finishes its current tick. Calls still in the
+     * buffers are left there.
+     */
+    synchronized void stop() {
+        if (controllerThread == null) {
+            return;
+        }
+        running = false;
+        try {
+            controllerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        controllerThread = null;
+        // The controller is at rest, so the last snapshot can be taken from here
+        if (metricsEndpoint != null) {
+            metricsEndpoint.publish(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    MultiElevatorController getController() {
+        return controller;
+    }
+
+    int getCurrentTime() {
+        return currentTime;
+    }
+
+    long getCallsRefused() {
+        return callsRefused.sum();
+    }
+
+    long getCallsAccepted() {
+        return callsAccepted;
+    }
+}
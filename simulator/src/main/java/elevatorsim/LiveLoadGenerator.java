@@ -0,0 +1,134 @@
+package elevatorsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+import elevatorsim.MultiElevatorController.Direction;
+
+/**
+ * Hammers a LiveController with random hall and car calls from many producer threads at
+ * once, to check that intake keeps up and that nothing is lost or corrupted on the way.
+ *
+ * Run it with, e.g., java elevatorsim.LiveLoadGenerator 16 2000 50 8, for 16 producer
+ * threads making 2000 calls each in a 50 story building with 8 cars.
+ */
+final class LiveLoadGenerator {
+
+    /*
+     * Outcome of one run.
+     *
+     * @param callsMade     calls the producers tried to make
+     * @param callsRefused  calls refused because the ring buffers were full
+     * @param callsAccepted calls the controller thread took in
+     * @param ticks         time units the controller ran for
+     * @param elapsedNanos  wall clock time from the producers starting to everyone being served
+     * @param metrics       the controller's metrics once it stopped
+     */
+    record Result(long callsMade, long callsRefused, long callsAccepted, int ticks, long elapsedNanos,
+            SimulationMetrics metrics) {
+    }
+
+    private LiveLoadGenerator() {
+    }
+
+    /*
+     * Starts producer threads that each make callsPerProducer calls, one in ten of them from
+     * inside a car, as fast as they can, while the controller thread ticks as fast as it can.
+     * Once every call has been taken in, the controller is ticked on until every car is idle.
+     */
+    static Result run(BuildingConfig config, int producers, int callsPerProducer, int bufferCapacity, long seed) {
+        LiveController live = new LiveController(config, bufferCapacity);
+        CountDownLatch ready = new CountDownLatch(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(producers);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int p = 0; p < producers; p++) {
+            SplittableRandom random = seeds.split();
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                awaitQuietly(go);
+                for (int i = 0; i < callsPerProducer; i++) {
+                    makeCall(live, config, random);
+                }
+            }, "call-producer-" + p);
+            threads.add(thread);
+            thread.start();
+        }
+
+        awaitQuietly(ready);
+        long start = System.nanoTime();
+        live.start(0);
+        go.countDown();
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        long callsMade = (long) producers * callsPerProducer;
+        // Let the controller thread take in what is still buffered
+        while (live.getCallsRefused() + live.getCallsAccepted() < callsMade) {
+            Thread.onSpinWait();
+        }
+        live.stop();
+        // Serve everyone still waiting or riding, on this thread now the controller thread is gone
+        MultiElevatorController controller = live.getController();
+        while (hasWorkLeft(controller)) {
+            live.tick();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        return new Result(callsMade, live.getCallsRefused(), live.getCallsAccepted(), live.getCurrentTime(),
+                elapsedNanos, controller.getMetrics());
+    }
+
+    // A refused call is dropped rather than retried, like a button press the panel didn't register
+    private static void makeCall(LiveController live, BuildingConfig config, SplittableRandom random) {
+        if (random.nextInt(10) == 0) {
+            live.submitCarCall(random.nextInt(config.numElevators()),
+                    config.bottomFloor() + random.nextInt(config.numFloors()));
+            return;
+        }
+        int floor = config.bottomFloor() + random.nextInt(config.numFloors());
+        int destination = config.bottomFloor() + random.nextInt(config.numFloors() - 1);
+        if (destination >= floor) {
+            destination++;
+        }
+        live.submitHallCall(floor, destination > floor ? Direction.UP : Direction.DOWN, destination);
+    }
+
+    private static boolean hasWorkLeft(MultiElevatorController controller) {
+        if (controller.getMetrics().pendingRequests() > 0) {
+            return true;
+        }
+        for (MultiElevatorController.Elevator elevator : controller.getElevators()) {
+            if (elevator.isActive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int callsPerProducer = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int floors = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int cars = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(floors, 1).withNumElevators(cars);
+        Result result = run(config, producers, callsPerProducer, 1 << 14, 42);
+        System.out.printf("%d producers made %d calls in %.1f ms: %d taken in, %d refused%n", producers,
+                result.callsMade(), result.elapsedNanos() / 1e6, result.callsAccepted(), result.callsRefused());
+        System.out.println(result.metrics());
+    }
+}
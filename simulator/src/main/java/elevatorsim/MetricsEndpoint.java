@@ -0,0 +1,219 @@
+package elevatorsim;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a running controller's state and latencies in the Prometheus text format at
+ * /metrics, from the JDK's built-in HTTP server.
+ *
+ * The thread ticking the controller publishes an immutable snapshot every so often, and
+ * scrapes render whichever snapshot was published last, so a scrape never touches the
+ * controller and the ticking thread never waits for a scrape. Metrics are as old as the
+ * publish interval at most.
+ *
+ * Times are in the simulation's time units, apart from dispatch time, which is wall clock
+ * time in seconds as Prometheus expects.
+ */
+final class MetricsEndpoint implements AutoCloseable {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Upper bounds of the wait time histogram buckets, in time units
+    private static final int[] WAIT_BOUNDS = { 5, 10, 15, 20, 30, 45, 60, 90, 120, 180, 300, 600 };
+
+    /*
+     * Cumulative counts of the values <= each of WAIT_BOUNDS, and of all values, with their sum.
+     */
+    private record Histogram(long[] buckets, long count, long sum) {
+
+        static Histogram of(LatencyHistogram histogram) {
+            return new Histogram(histogram.countsAtOrBelow(WAIT_BOUNDS), histogram.getCount(), histogram.getSum());
+        }
+    }
+
+    /*
+     * What one scrape reports. The arrays are copies, indexed by elevator ID.
+     */
+    private record Snapshot(int time, int[] floors, int[] directions, int[] queueDepths, int[] passengers,
+            int pendingHallCalls, ControllerCounters counters, Histogram waitTimes, Histogram[] waitTimesByCar,
+            long callsAccepted, long callsRefused) {
+    }
+
+    private final HttpServer server;
+    private final long publishIntervalNanos;
+    private volatile Snapshot snapshot;
+    // When the ticking thread last published. Only that thread reads or writes it.
+    private long lastPublished;
+    private boolean published;
+
+    /*
+     * Starts serving on the given address, with port 0 for any free port. Snapshots are
+     * published at most once every publishIntervalNanos.
+     */
+    MetricsEndpoint(InetSocketAddress address, long publishIntervalNanos) throws IOException {
+        this.publishIntervalNanos = publishIntervalNanos;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /*
+     * Publishes a snapshot of the live controller if the last one is older than the
+     * publish interval. Only the thread ticking the controller may call it.
+     */
+    void publishIfDue(LiveController live) {
+        if (!published || System.nanoTime() - lastPublished >= publishIntervalNanos) {
+            publish(live);
+        }
+    }
+
+    // Publishes a snapshot now. Only the thread ticking the controller may call it.
+    void publish(LiveController live) {
+        MultiElevatorController controller = live.getController();
+        CarFleet fleet = controller.getFleet();
+        LatencyMetrics latencyMetrics = controller.getLatencyMetrics();
+        Histogram[] waitTimesByCar = new Histogram[fleet.size()];
+        for (int car = 0; car < waitTimesByCar.length; car++) {
+            waitTimesByCar[car] = Histogram.of(latencyMetrics.getWaitTimesForElevator(car));
+        }
+        ControllerCounters counters = controller.getCounters();
+        snapshot = new Snapshot(controller.getCurrentTime(), fleet.floor.clone(), fleet.direction.clone(),
+                fleet.requests.clone(), fleet.passengersOnBoard.clone(), counters.callsWaiting(), counters,
+                Histogram.of(latencyMetrics.getWaitTimes()), waitTimesByCar, live.getCallsAccepted(),
+                live.getCallsRefused());
+        lastPublished = System.nanoTime();
+        published = true;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render(snapshot).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    // The snapshot in the Prometheus text format, or nothing if none has been published yet
+    private static String render(Snapshot snapshot) {
+        if (snapshot == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder();
+        header(out, "elevatorsim_time", "gauge", "Simulation time in time units");
+        sample(out, "elevatorsim_time", "", snapshot.time());
+
+        header(out, "elevatorsim_car_floor", "gauge", "Floor each car is at");
+        for (int car = 0; car < snapshot.floors().length; car++) {
+            sample(out, "elevatorsim_car_floor", carLabel(car), snapshot.floors()[car]);
+        }
+        header(out, "elevatorsim_car_direction", "gauge", "1 for the direction each car is heading in");
+        MultiElevatorController.Direction[] directions = MultiElevatorController.Direction.values();
+        for (int car = 0; car < snapshot.directions().length; car++) {
+            for (MultiElevatorController.Direction direction : directions) {
+                sample(out, "elevatorsim_car_direction", carLabel(car) + ",direction=\"" + direction + "\"",
+                        snapshot.directions()[car] == direction.ordinal() ? 1 : 0);
+            }
+        }
+        header(out, "elevatorsim_car_queue_depth", "gauge",
+                "Hall calls assigned to each car and not yet picked up, plus car buttons pressed");
+        for (int car = 0; car < snapshot.queueDepths().length; car++) {
+            sample(out, "elevatorsim_car_queue_depth", carLabel(car), snapshot.queueDepths()[car]);
+        }
+        header(out, "elevatorsim_car_passengers", "gauge", "Passengers on board each car");
+        for (int car = 0; car < snapshot.passengers().length; car++) {
+            sample(out, "elevatorsim_car_passengers", carLabel(car), snapshot.passengers()[car]);
+        }
+
+        header(out, "elevatorsim_pending_hall_calls", "gauge", "Hall calls waiting for a car to be assigned");
+        sample(out, "elevatorsim_pending_hall_calls", "", snapshot.pendingHallCalls());
+        header(out, "elevatorsim_calls_accepted_total", "counter", "Calls taken in from the live feeds");
+        sample(out, "elevatorsim_calls_accepted_total", "", snapshot.callsAccepted());
+        header(out, "elevatorsim_calls_refused_total", "counter", "Calls refused because the feed buffers were full");
+        sample(out, "elevatorsim_calls_refused_total", "", snapshot.callsRefused());
+
+        ControllerCounters counters = snapshot.counters();
+        header(out, "elevatorsim_dispatch_duration_seconds", "summary",
+                "Wall clock time of the passes offering waiting hall calls to the cars");
+        sample(out, "elevatorsim_dispatch_duration_seconds_sum", "", counters.dispatchNanos() / 1e9);
+        sample(out, "elevatorsim_dispatch_duration_seconds_count", "", counters.dispatchPasses());
+        header(out, "elevatorsim_dispatch_duration_max_seconds", "gauge", "Longest dispatch pass");
+        sample(out, "elevatorsim_dispatch_duration_max_seconds", "", counters.maxDispatchNanos() / 1e9);
+        header(out, "elevatorsim_dispatch_decisions_total", "counter", "Times a dispatch strategy chose a car");
+        sample(out, "elevatorsim_dispatch_decisions_total", "", counters.dispatchDecisions());
+        header(out, "elevatorsim_calls_assigned_total", "counter", "Hall calls given to a car");
+        sample(out, "elevatorsim_calls_assigned_total", "", counters.callsAssigned());
+        header(out, "elevatorsim_direction_changes_total", "counter", "Times a car changed direction");
+        sample(out, "elevatorsim_direction_changes_total", "", counters.directionChanges());
+
+        header(out, "elevatorsim_wait_time_units", "histogram",
+                "Time units from hall call to boarding, per passenger, for all cars and per car");
+        histogram(out, "elevatorsim_wait_time_units", "", snapshot.waitTimes());
+        for (int car = 0; car < snapshot.waitTimesByCar().length; car++) {
+            histogram(out, "elevatorsim_wait_time_units", carLabel(car), snapshot.waitTimesByCar()[car]);
+        }
+        return out.toString();
+    }
+
+    private static String carLabel(int car) {
+        return "elevator=\"" + car + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(String.format(Locale.ROOT, "%.9f", value)).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, String labels, Histogram histogram) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < WAIT_BOUNDS.length; i++) {
+            sample(out, name + "_bucket", prefix + "le=\"" + WAIT_BOUNDS[i] + "\"", histogram.buckets()[i]);
+        }
+        sample(out, name + "_bucket", prefix + "le=\"+Inf\"", histogram.count());
+        sample(out, name + "_sum", labels, histogram.sum());
+        sample(out, name + "_count", labels, histogram.count());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
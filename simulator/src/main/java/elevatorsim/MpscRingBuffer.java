@@ -0,0 +1,103 @@
+package elevatorsim;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free queue for many producer threads and a single consumer thread.
+ *
+ * Every slot carries a sequence number that says whose turn it is. A producer claims the
+ * next position with one compare-and-set on the tail, writes the element and then
+ * publishes it by advancing the slot's sequence. The consumer owns the head outright, so
+ * draining takes no compare-and-set at all: it reads slots in order while their sequence
+ * says they are published, and hands each slot back to producers one lap later.
+ *
+ * Offering to a full buffer fails instead of blocking, so producers decide whether to
+ * retry or drop.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] elements;
+    // sequences[i] == position: free for the producer claiming position.
+    // sequences[i] == position + 1: published, ready for the consumer.
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // Only touched by the consumer
+
+    MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 2, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /*
+     * Adds the element. Returns false, without waiting, if the buffer is full. Safe to call
+     * from any number of threads.
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds the element from one lap ago
+                return false;
+            } else {
+                // Another producer claimed this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /*
+     * Hands up to limit published elements to the sink, oldest first, and returns how many
+     * it handed over. Only the consumer thread may call this.
+     */
+    @SuppressWarnings("unchecked")
+    int drain(Consumer<? super E> sink, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.getAcquire(index) != head + 1) {
+                break;
+            }
+            E element = (E) elements[index];
+            elements[index] = null;
+            sequences.setRelease(index, head + elements.length);
+            head++;
+            drained++;
+            sink.accept(element);
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    /*
+     * Elements offered but not yet drained. Only the consumer thread may call this, and the
+     * count is only exact when no producer is mid-offer.
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,3264 @@
+package elevatorsim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+
+public class MultiElevatorController {
+
+    enum Direction {
+        UP,
+        DOWN,
+        IDLE
+    }
+
+    // Direction.values() copies the array on every call
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /*
+     * The kinds of events the simulation engine processes. Events that share a
+     * timestamp are ordered by phase: new hall calls are registered first, then
+     * dispatched, and only then do the cars act on that instant.
+     */
+    private enum EventType {
+        REQUEST_ARRIVAL(0),
+        DISPATCH(1),
+        FLOOR_ARRIVAL(2),
+        DOOR_OPEN(2),
+        PASSENGER_EXIT(2),
+        DOOR_CLOSE(2);
+
+        private final int phase;
+
+        EventType(int phase) {
+            this.phase = phase;
+        }
+    }
+
+    /*
+     * This class models a single entry in the simulation's time-ordered event queue.
+     */
+    private static class SimulationEvent implements Comparable<SimulationEvent> {
+        int time; // Time the event takes place
+        EventType type;
+        long sequence; // Orders events of the same time and phase by when they were scheduled
+        Elevator elevator; // The car the event applies to, null for building-wide events
+        Request request; // The request that arrives, only set for REQUEST_ARRIVAL
+
+        public SimulationEvent(int time, EventType type, long sequence, Elevator elevator, Request request) {
+            this.time = time;
+            this.type = type;
+            this.sequence = sequence;
+            this.elevator = elevator;
+            this.request = request;
+        }
+
+        @Override
+        public int compareTo(SimulationEvent other) {
+            if (time != other.time) {
+                return Integer.compare(time, other.time);
+            }
+            if (type.phase != other.type.phase) {
+                return Integer.compare(type.phase, other.type.phase);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /*
+     * This class models the request made by a passanger pressing
+     * a floor's Up or Down button.
+     */
+    static class Request implements Comparable<Request> {
+        final int floor; // The floor where the request originated (e.g., where the Up or Down button was
+                         // pressed)
+        final Direction direction; // Was the Up or Down button pressed
+        final int destination; // The floor the passenger wants to go to
+        final int time; // Time the request was made
+        final int passengers; // People travelling together, who board and alight as one
+        final int weight; // Their total weight in kilograms
+
+        // Weight assumed for each passenger when a request doesn't give one
+        static final int PASSENGER_WEIGHT = 75;
+
+        public Request(int floor, Direction direction, int destination, int time) {
+            this(floor, direction, destination, time, 1);
+        }
+
+        public Request(int floor, Direction direction, int destination, int time, int passengers) {
+            this(floor, direction, destination, time, passengers, passengers * PASSENGER_WEIGHT);
+        }
+
+        public Request(int floor, Direction direction, int destination, int time, int passengers, int weight) {
+            if (passengers < 1) {
+                throw new IllegalArgumentException("passengers must be at least 1, got " + passengers);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must not be negative, got " + weight);
+            }
+            this.floor = floor;
+            this.direction = direction;
+            this.destination = destination;
+            this.time = time;
+            this.passengers = passengers;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            return Integer.compare(this.time, other.time);
+        }
+
+        @Override
+        public String toString() {
+            return "Request{" +
+                    "floor=" + floor +
+                    ", direction=" + direction +
+                    ", destination=" + destination +
+                    ", time=" + time +
+                    (passengers != 1 ? ", passengers=" + passengers : "") +
+                    '}';
+        }
+    }
+
+    public static class Elevator {
+        private final BuildingConfig config;
+        private int elevatorID;
+        // The car's floor, direction, load, request count and state version live in its
+        // slot of the fleet's arrays
+        private final CarFleet fleet;
+        // A bitset will ensure we don't store duplicates of buttons pressed
+        private FloorBitSet elevatorButtonsPressed;
+        private final HallCallQueue el_floorRequestsQueue;
+        // Floors with at least one request in el_floorRequestsQueue, overall and per direction.
+        // These let us answer "is there a stop above/below" without scanning the queue.
+        private FloorBitSet hallCallFloors;
+        private FloorBitSet[] hallCallFloorsByDirection;
+        // Destinations of the requests in el_floorRequestsQueue, counted per floor, and the
+        // passengers still to be picked up. Destination dispatch groups calls by these.
+        private int[] hallCallDestinationCounts;
+        private FloorBitSet hallCallDestinations;
+        private int passengersWaiting;
+        // Hall calls the controller has sent this car that haven't reached it yet, per
+        // direction and floor, and in all. The car owns them in the hall call index and
+        // counts them among its requests from the moment they are sent.
+        private final int[] callsInFlight;
+        private int callsInFlightTotal;
+        // floorsVisited is only used for testing. A copied car shares it with the car it
+        // was copied from until either of them visits another floor.
+        private ArrayList<Integer> floorsVisited = new ArrayList<>();
+        private boolean floorsVisitedShared;
+        // True while this car has an event waiting in the controller's event queue
+        private boolean eventPending;
+        private ElevatorEventListener eventListener = ElevatorEventListener.NONE;
+        // Running totals reported through SimulationMetrics
+        private long floorsTravelled;
+        private long stopsMade;
+        private long directionChanges;
+        private int passengersPickedUp;
+        private long requestsReturned;
+        // Passengers on board and the time each of them boarded, kept in parallel arrays so
+        // boarding and alighting allocate nothing once the arrays are big enough
+        private Request[] riders = new Request[8];
+        private int[] riderBoardTimes = new int[8];
+        private int riderCount;
+        // Hall calls this car gave up because it had no room, waiting to be handed back to
+        // the controller for reassignment
+        private final ArrayList<Request> returnedRequests = new ArrayList<>();
+        private final LatencyMetrics latencyMetrics;
+        private final HallCallIndex hallCallIndex;
+        // The value of the controller's dispatch clock when it saw this car change
+        private long changedAt;
+
+        public Elevator(int id, BuildingConfig config) {
+            this(id, config, new CarFleet(id + 1), new LatencyMetrics(config), new HallCallIndex(config, id + 1));
+        }
+
+        /*
+         * Creates a car that keeps its state in its slot of the fleet, and records its
+         * passengers' latencies into the given metrics and its hall calls into the given
+         * index. All three are usually shared by all cars of a controller.
+         */
+        Elevator(int id, BuildingConfig config, CarFleet fleet, LatencyMetrics latencyMetrics,
+                HallCallIndex hallCallIndex) {
+            this.config = config;
+            this.fleet = fleet;
+            this.latencyMetrics = latencyMetrics;
+            this.hallCallIndex = hallCallIndex;
+            this.elevatorID = id;
+            setCurrentFloor(config.bottomFloor());
+            setDirection(Direction.IDLE);
+            this.elevatorButtonsPressed = new FloorBitSet(config.bottomFloor(), config.topFloor());
+            this.el_floorRequestsQueue = new HallCallQueue(config.bottomFloor(), config.topFloor());
+            this.hallCallFloors = new FloorBitSet(config.bottomFloor(), config.topFloor());
+            this.hallCallFloorsByDirection = new FloorBitSet[DIRECTIONS.length];
+            for (int i = 0; i < hallCallFloorsByDirection.length; i++) {
+                hallCallFloorsByDirection[i] = new FloorBitSet(config.bottomFloor(), config.topFloor());
+            }
+            this.hallCallDestinationCounts = new int[config.numFloors()];
+            this.hallCallDestinations = new FloorBitSet(config.bottomFloor(), config.topFloor());
+            this.callsInFlight = new int[DIRECTIONS.length * config.numFloors()];
+        }
+
+        public int numOfTotalRequests() {
+            return fleet.requests[elevatorID];
+        }
+
+        // Keeps the fleet's request count in step after the queue or buttons changed
+        private void countRequests() {
+            fleet.requests[elevatorID] = el_floorRequestsQueue.size() + elevatorButtonsPressed.size()
+                    + callsInFlightTotal;
+        }
+
+        private void setCurrentFloor(int floor) {
+            fleet.floor[elevatorID] = floor;
+        }
+
+        private void setDirection(Direction direction) {
+            fleet.direction[elevatorID] = direction.ordinal();
+        }
+
+        // Tells dispatch strategies that anything they cached about this car is out of date
+        private void stateChanged() {
+            fleet.stateVersion[elevatorID]++;
+        }
+
+        public void addRequest(Request request, int currentTime) {
+            el_floorRequestsQueue.add(request);
+            hallCallFloors.add(request.floor);
+            hallCallFloorsByDirection[request.direction.ordinal()].add(request.floor);
+            hallCallIndex.add(request.floor, request.direction, elevatorID);
+            if (hallCallDestinationCounts[request.destination - config.bottomFloor()]++ == 0) {
+                hallCallDestinations.add(request.destination);
+            }
+            passengersWaiting += request.passengers;
+            countRequests();
+            stateChanged();
+            eventListener.onRequestAssigned(currentTime, elevatorID, request);
+            if (getDirection() == Direction.IDLE) {
+                updateElevatorDirection();
+            }
+        }
+
+        /*
+         * The controller has sent the car a hall call that takes a while to reach it. Until
+         * it arrives, the car already owns the call and counts it among its requests, so
+         * dispatch doesn't score against the car as it was before.
+         */
+        void callSent(Request request) {
+            callsInFlight[inFlightIndex(request.floor, request.direction)]++;
+            callsInFlightTotal++;
+            hallCallIndex.add(request.floor, request.direction, elevatorID);
+            countRequests();
+            stateChanged();
+        }
+
+        // A call the controller sent has reached the car, which is then assigned it as usual
+        void callArrived(Request request) {
+            callsInFlight[inFlightIndex(request.floor, request.direction)]--;
+            callsInFlightTotal--;
+        }
+
+        private int inFlightIndex(int floor, Direction direction) {
+            return direction.ordinal() * config.numFloors() + floor - config.bottomFloor();
+        }
+
+        // Takes the car out of the index for the floor and direction, unless a call from
+        // there is still on its way to it
+        private void unindexHallCall(int floor, Direction direction) {
+            if (callsInFlight[inFlightIndex(floor, direction)] == 0) {
+                hallCallIndex.remove(floor, direction, elevatorID);
+            }
+        }
+
+        public int getElevatorID() {
+            return elevatorID;
+        }
+
+        public int getCurrentFloor() {
+            return fleet.floor[elevatorID];
+        }
+
+        public Direction getDirection() {
+            return fleet.direction(elevatorID);
+        }
+
+        public void handleElevatorButtonPress(int destination, int currentTime) {
+            elevatorButtonsPressed.add(destination);
+            countRequests();
+            stateChanged();
+            eventListener.onElevatorButtonPressed(currentTime, elevatorID, destination);
+        }
+
+        private boolean atLeastOneRequestRemains() {
+            if (!el_floorRequestsQueue.isEmpty() || !elevatorButtonsPressed.isEmpty()) {
+                return true;
+            }
+            return false;
+        }
+
+        /*
+         * A car is active while it is moving or still has requests to serve. Idle cars
+         * with nothing to do are left out of the event queue until they are assigned a request.
+         */
+        boolean isActive() {
+            return getDirection() != Direction.IDLE || atLeastOneRequestRemains();
+        }
+
+        private boolean hasPassengersExiting() {
+            return elevatorButtonsPressed.contains(getCurrentFloor());
+        }
+
+        private boolean hasStopAtCurrentFloor() {
+            return hasPassengersExiting() || hallCallFloors.contains(getCurrentFloor());
+        }
+
+        /*
+         * Returns true if this car has already been assigned a request from the given floor
+         * in the given direction.
+         */
+        boolean hasHallCall(int floor, Direction direction) {
+            return hallCallFloorsByDirection[direction.ordinal()].contains(floor);
+        }
+
+        long getStateVersion() {
+            return fleet.stateVersion[elevatorID];
+        }
+
+        /*
+         * Whether the request's passengers would fit into the car as it is loaded right now,
+         * both by head count and by weight.
+         */
+        boolean hasRoomFor(Request request) {
+            return getPassengersOnBoard() + request.passengers <= config.carCapacity()
+                    && getLoadOnBoard() + request.weight <= config.ratedLoad();
+        }
+
+        // Full means not even one more passenger of the assumed weight fits
+        boolean isFull() {
+            return getPassengersOnBoard() >= config.carCapacity()
+                    || getLoadOnBoard() + Request.PASSENGER_WEIGHT > config.ratedLoad();
+        }
+
+        int getPassengersOnBoard() {
+            return fleet.passengersOnBoard[elevatorID];
+        }
+
+        // Kilograms
+        int getLoadOnBoard() {
+            return fleet.loadOnBoard[elevatorID];
+        }
+
+        /*
+         * The following describe the floors this car has committed to stopping at, i.e. the
+         * floors of its pressed buttons and of its assigned hall calls.
+         */
+        boolean hasStops() {
+            return !elevatorButtonsPressed.isEmpty() || !hallCallFloors.isEmpty();
+        }
+
+        int highestStop() {
+            if (elevatorButtonsPressed.isEmpty()) {
+                return hallCallFloors.highest();
+            }
+            if (hallCallFloors.isEmpty()) {
+                return elevatorButtonsPressed.highest();
+            }
+            return Math.max(elevatorButtonsPressed.highest(), hallCallFloors.highest());
+        }
+
+        int lowestStop() {
+            if (elevatorButtonsPressed.isEmpty()) {
+                return hallCallFloors.lowest();
+            }
+            if (hallCallFloors.isEmpty()) {
+                return elevatorButtonsPressed.lowest();
+            }
+            return Math.min(elevatorButtonsPressed.lowest(), hallCallFloors.lowest());
+        }
+
+        // Number of stops between the two floors, inclusive
+        int stopsBetween(int fromFloor, int toFloor) {
+            return FloorBitSet.countUnion(elevatorButtonsPressed, hallCallFloors, fromFloor, toFloor);
+        }
+
+        /*
+         * Whether the car is going to stop at the floor anyway: for someone on board, for a
+         * hall call, or to drop off passengers it has yet to pick up.
+         */
+        boolean willStopAt(int floor) {
+            return elevatorButtonsPressed.contains(floor) || hallCallFloors.contains(floor)
+                    || hallCallDestinations.contains(floor);
+        }
+
+        /*
+         * The highest and lowest floors the car has to reach, counting where it is now and
+         * where the passengers it has yet to pick up are going.
+         */
+        int highestPlannedFloor() {
+            int currentFloor = getCurrentFloor();
+            int highest = hasStops() ? Math.max(highestStop(), currentFloor) : currentFloor;
+            return hallCallDestinations.isEmpty() ? highest : Math.max(highest, hallCallDestinations.highest());
+        }
+
+        int lowestPlannedFloor() {
+            int currentFloor = getCurrentFloor();
+            int lowest = hasStops() ? Math.min(lowestStop(), currentFloor) : currentFloor;
+            return hallCallDestinations.isEmpty() ? lowest : Math.min(lowest, hallCallDestinations.lowest());
+        }
+
+        // Passengers on board plus those waiting for this car
+        int getPassengersAssigned() {
+            return getPassengersOnBoard() + passengersWaiting;
+        }
+
+        private void clearHallCalls() {
+            hallCallFloors.clear();
+            for (Direction direction : DIRECTIONS) {
+                FloorBitSet floors = hallCallFloorsByDirection[direction.ordinal()];
+                while (!floors.isEmpty()) {
+                    int floor = floors.lowest();
+                    floors.remove(floor);
+                    unindexHallCall(floor, direction);
+                }
+            }
+            Arrays.fill(hallCallDestinationCounts, 0);
+            hallCallDestinations.clear();
+            passengersWaiting = 0;
+        }
+
+        // Forgets a request taken out of el_floorRequestsQueue
+        private void removeHallCallDestination(Request request) {
+            if (--hallCallDestinationCounts[request.destination - config.bottomFloor()] == 0) {
+                hallCallDestinations.remove(request.destination);
+            }
+            passengersWaiting -= request.passengers;
+        }
+
+        ArrayList<Integer> getFloorsVisited() {
+            return floorsVisited;
+        }
+
+        /*
+         * Makes this car's state that of the source, a car of the same building with the
+         * same ID. Hall calls are not entered into the index here, the controller copies
+         * the whole index at once. The state version moves past both cars' versions, so
+         * nothing cached about either is taken for this car's new state. Without history,
+         * the floors the car has visited start out empty.
+         */
+        private void copyFrom(Elevator source, boolean history) {
+            fleet.copyCar(source.fleet, elevatorID);
+            elevatorButtonsPressed.copyFrom(source.elevatorButtonsPressed);
+            el_floorRequestsQueue.copyFrom(source.el_floorRequestsQueue);
+            hallCallFloors.copyFrom(source.hallCallFloors);
+            for (int i = 0; i < hallCallFloorsByDirection.length; i++) {
+                hallCallFloorsByDirection[i].copyFrom(source.hallCallFloorsByDirection[i]);
+            }
+            System.arraycopy(source.hallCallDestinationCounts, 0, hallCallDestinationCounts, 0,
+                    hallCallDestinationCounts.length);
+            hallCallDestinations.copyFrom(source.hallCallDestinations);
+            passengersWaiting = source.passengersWaiting;
+            if (history) {
+                floorsVisited = source.floorsVisited;
+                floorsVisitedShared = true;
+                source.floorsVisitedShared = true;
+            } else {
+                floorsVisited = new ArrayList<>();
+                floorsVisitedShared = false;
+            }
+            eventPending = source.eventPending;
+            floorsTravelled = source.floorsTravelled;
+            stopsMade = source.stopsMade;
+            directionChanges = source.directionChanges;
+            passengersPickedUp = source.passengersPickedUp;
+            requestsReturned = source.requestsReturned;
+            riders = source.riders.clone();
+            riderBoardTimes = source.riderBoardTimes.clone();
+            riderCount = source.riderCount;
+            returnedRequests.clear();
+            returnedRequests.addAll(source.returnedRequests);
+            fleet.stateVersion[elevatorID] = Math.max(getStateVersion(), source.getStateVersion()) + 1;
+            fleet.dispatchedVersion[elevatorID] = -1;
+            changedAt = 0;
+        }
+
+        void processElevatorRequests(int currentTime) {
+            stateChanged();
+
+            // Check if any passengers need to get off at the current floor
+            letPassengersExit(currentTime);
+
+            // Check if we are at a requested floor. if so, then model passengers entering
+            // the elevator and pressing a button
+            // Then remove this floor request from the queue.
+            letPassengersEnter(currentTime);
+
+            // Passengers who got in at the floor they wanted to go to get right back out
+            letPassengersExit(currentTime);
+
+            countRequests();
+
+            // Determine the elevator's next direction
+            updateElevatorDirection();
+
+            eventListener.onStatus(currentTime, elevatorID, getCurrentFloor(), getDirection());
+
+            // If the elevator is moving towards a request, continue in that direction
+            if (getDirection() != Direction.IDLE) {
+                move();
+            }
+        }
+
+        /*
+         * Moves one floor, or, when the building has Kinematics, straight to the next stop
+         * in the car's direction. A car on such a run is committed to it, so it reports the
+         * floor it is running to and calls it passes on the way are left for later.
+         */
+        private void move() {
+            int currentFloor = getCurrentFloor();
+            int nextFloor;
+            if (config.kinematics() != null) {
+                nextFloor = nextStop();
+            } else {
+                nextFloor = getDirection() == Direction.UP ? currentFloor + 1 : currentFloor - 1;
+            }
+            if (nextFloor >= config.bottomFloor() && nextFloor <= config.topFloor()) {
+                floorsTravelled += Math.abs(nextFloor - currentFloor);
+                setCurrentFloor(nextFloor);
+            }
+        }
+
+        // The closest stop in the car's direction, or the next floor if there is none
+        private int nextStop() {
+            int currentFloor = getCurrentFloor();
+            if (getDirection() == Direction.UP) {
+                int nextFloor = Integer.MAX_VALUE;
+                if (elevatorButtonsPressed.anyAbove(currentFloor)) {
+                    nextFloor = elevatorButtonsPressed.lowestAbove(currentFloor);
+                }
+                if (hallCallFloors.anyAbove(currentFloor)) {
+                    nextFloor = Math.min(nextFloor, hallCallFloors.lowestAbove(currentFloor));
+                }
+                return nextFloor != Integer.MAX_VALUE ? nextFloor : currentFloor + 1;
+            }
+            int nextFloor = Integer.MIN_VALUE;
+            if (elevatorButtonsPressed.anyBelow(currentFloor)) {
+                nextFloor = elevatorButtonsPressed.highestBelow(currentFloor);
+            }
+            if (hallCallFloors.anyBelow(currentFloor)) {
+                nextFloor = Math.max(nextFloor, hallCallFloors.highestBelow(currentFloor));
+            }
+            return nextFloor != Integer.MIN_VALUE ? nextFloor : currentFloor - 1;
+        }
+
+        /*
+         * This is solely used for unit testing the code
+         */
+        private void addFloorToVisitedList(){
+            int currentFloor = getCurrentFloor();
+            if(floorsVisited.size() == 0 || floorsVisited.getLast() != currentFloor){
+                if (floorsVisitedShared) {
+                    floorsVisited = new ArrayList<>(floorsVisited);
+                    floorsVisitedShared = false;
+                }
+                floorsVisited.add(currentFloor);
+            }
+        }
+
+        // Returns the number of passengers who got out
+        private int letPassengersExit(int currentTime) {
+            int currentFloor = getCurrentFloor();
+            int passengersExited = 0;
+            if (elevatorButtonsPressed.contains(currentFloor)) {
+                addFloorToVisitedList();
+                eventListener.onPassengersExit(currentTime, elevatorID, currentFloor);
+                elevatorButtonsPressed.remove(currentFloor);
+                countRequests();
+                stateChanged();
+                for (int i = riderCount - 1; i >= 0; i--) {
+                    if (riders[i].destination == currentFloor) {
+                        latencyMetrics.recordPassenger(elevatorID, riders[i], riderBoardTimes[i], currentTime);
+                        eventListener.onPassengerExit(currentTime, elevatorID, riders[i]);
+                        passengersExited += riders[i].passengers;
+                        removeRider(i);
+                    }
+                }
+            }
+            return passengersExited;
+        }
+
+        private void addRider(Request request, int boardTime) {
+            if (riderCount == riders.length) {
+                riders = Arrays.copyOf(riders, riderCount * 2);
+                riderBoardTimes = Arrays.copyOf(riderBoardTimes, riderCount * 2);
+            }
+            riders[riderCount] = request;
+            riderBoardTimes[riderCount] = boardTime;
+            riderCount++;
+            fleet.passengersOnBoard[elevatorID] += request.passengers;
+            fleet.loadOnBoard[elevatorID] += request.weight;
+        }
+
+        // Order doesn't matter, so the last rider takes the removed rider's slot
+        private void removeRider(int index) {
+            fleet.passengersOnBoard[elevatorID] -= riders[index].passengers;
+            fleet.loadOnBoard[elevatorID] -= riders[index].weight;
+            riderCount--;
+            riders[index] = riders[riderCount];
+            riderBoardTimes[index] = riderBoardTimes[riderCount];
+            riders[riderCount] = null;
+        }
+
+        private void clearRiders() {
+            Arrays.fill(riders, 0, riderCount, null);
+            riderCount = 0;
+            fleet.passengersOnBoard[elevatorID] = 0;
+            fleet.loadOnBoard[elevatorID] = 0;
+            returnedRequests.clear();
+        }
+
+        /*
+         * Hands the requests this car has given up on to the given consumer.
+         */
+        void drainReturnedRequests(Consumer<Request> into) {
+            returnedRequests.forEach(into);
+            returnedRequests.clear();
+        }
+
+        boolean hasReturnedRequests() {
+            return !returnedRequests.isEmpty();
+        }
+
+        private void returnRequest(Request request, int currentTime) {
+            returnedRequests.add(request);
+            requestsReturned++;
+            eventListener.onRequestReturned(currentTime, elevatorID, request);
+        }
+
+        private void letPassengersEnter(int currentTime) {
+            int currentFloor = getCurrentFloor();
+            if (!hallCallFloors.contains(currentFloor)) {
+                return;
+            }
+            // The calls at this floor board in the order they were assigned
+            Request request;
+            while ((request = el_floorRequestsQueue.pollAt(currentFloor)) != null) {
+                removeHallCallDestination(request);
+                // Passengers who don't fit are left for another car
+                if (!hasRoomFor(request)) {
+                    returnRequest(request, currentTime);
+                    continue;
+                }
+                addFloorToVisitedList();
+                eventListener.onPassengerEnter(currentTime, elevatorID, request);
+                handleElevatorButtonPress(request.destination, currentTime);
+                addRider(request, currentTime);
+                passengersPickedUp += request.passengers;
+            }
+            hallCallFloors.remove(currentFloor);
+            for (Direction direction : DIRECTIONS) {
+                if (hallCallFloorsByDirection[direction.ordinal()].remove(currentFloor)) {
+                    unindexHallCall(currentFloor, direction);
+                }
+            }
+            // A full car bypasses the hall calls still assigned to it and gives them back
+            if (isFull() && !el_floorRequestsQueue.isEmpty()) {
+                while ((request = el_floorRequestsQueue.poll()) != null) {
+                    returnRequest(request, currentTime);
+                }
+                clearHallCalls();
+            }
+        }
+
+        /*
+         * This method determines the next direction the elevator should move in.
+         * The elevator will continue moving in the current direction if there are more
+         * requests in that direction.
+         * If there are no more requests in the current direction, but requests in the
+         * opposite direction, the elevator will change direction.
+         * If there are no requests, the elevator will remain idle.
+         * If the elevator is currently idle, it will move towards the first floor
+         * request, if there
+         * are no floor requests, it will move towards the closest elevator button
+         * pressed.
+         */
+        void updateElevatorDirection() {
+            Direction from = getDirection();
+            Direction to = nextDirection(from, getCurrentFloor());
+            if (to == from) {
+                return;
+            }
+            setDirection(to);
+            directionChanges++;
+            if (ControllerEvents.isRecording()) {
+                ControllerEvents.DirectionChange event = new ControllerEvents.DirectionChange();
+                if (event.shouldCommit()) {
+                    event.elevatorID = elevatorID;
+                    event.floor = getCurrentFloor();
+                    event.from = from.name();
+                    event.to = to.name();
+                    event.commit();
+                }
+            }
+        }
+
+        private Direction nextDirection(Direction direction, int currentFloor) {
+            // If at least one elevator button or floor request button is pressed, we handle
+            // the edge case of being at the TOP or BOTTOM floor
+            if (atLeastOneRequestRemains()) {
+                if (currentFloor == config.topFloor()) {
+                    return Direction.DOWN;
+                } else if (currentFloor == config.bottomFloor()) {
+                    return Direction.UP;
+                }
+            }
+
+            // If the elevator is moving up, and there are any requests above the current
+            // floor, keep the direction as up.
+            // If the elevator is moving up, and there are no more requests above the
+            // current floor,
+            // change the direction to idle.
+            if (direction == Direction.UP) {
+                if (hallCallFloors.anyAbove(currentFloor) || elevatorButtonsPressed.anyAbove(currentFloor)) {
+                    return Direction.UP;
+                }
+            }
+
+            // If the elevator is moving down, and there are any requests below the current
+            // floor, keep the direction as down.
+            // If the elevator is moving down, and there are no more requests below the
+            // current
+            // floor, change the direction to idle.
+            if (direction == Direction.DOWN) {
+                if (hallCallFloors.anyBelow(currentFloor) || elevatorButtonsPressed.anyBelow(currentFloor)) {
+                    return Direction.DOWN;
+                }
+            }
+
+            // If the elevator is idle, and there are more floor requests, set the direction
+            // based on whether the floor request is above or below the current floor.
+            if (!el_floorRequestsQueue.isEmpty()) {
+                Request nextRequest = el_floorRequestsQueue.peek();
+                if (nextRequest.floor > currentFloor) {
+                    return Direction.UP;
+                } else {
+                    return Direction.DOWN;
+                }
+            }
+            // If no external requests, go to the closest elevator button pressed
+            else if (!elevatorButtonsPressed.isEmpty()) {
+                int nextStop = getNearestStop();
+                if (nextStop > currentFloor) {
+                    return Direction.UP;
+                } else {
+                    return Direction.DOWN;
+                }
+            }
+            // If there are no more elevator buttons pressed, or floor requests, the
+            // elevator remains idle.
+            return Direction.IDLE;
+        }
+
+        /*
+         * This method returns the nearest stop in the direction of the elevator
+         * based on the current floor and the set of elevator buttons pressed.
+         * If two stops are equally close, the lower one is returned.
+         */
+        private int getNearestStop() {
+            // If there are no elevator buttons pressed, return the lobby floor
+            if (elevatorButtonsPressed.isEmpty()) {
+                return config.bottomFloor();
+            }
+            return elevatorButtonsPressed.nearest(getCurrentFloor());
+        }
+
+    }
+
+    /*
+     * A hall call waiting for a car, and the value of the dispatch clock when it was last
+     * offered to the cars, or 0 if it hasn't been yet.
+     */
+    private static class PendingHallCall {
+        final Request request;
+        long offeredAt;
+
+        PendingHallCall(Request request) {
+            this.request = request;
+        }
+    }
+
+    /*
+     * A message to a car running as an actor. Hall call assignments and button presses are
+     * sent by the dispatcher and take effect at the given time, when they reach the car.
+     * STEP tells the car to run its events up to the given time, STOP ends its thread.
+     */
+    private record CarMessage(Kind kind, int time, Request request, int floor) {
+        enum Kind {
+            ASSIGN,
+            PRESS,
+            STEP,
+            STOP
+        }
+    }
+
+    /*
+     * A car running on a virtual thread of its own, with its own event queue and a mailbox.
+     * The controller only assigns calls and messages the cars: it steps every car with
+     * something to do at the current time, waits for all of them, then dispatches again
+     * against what they did. Cars step in parallel and share nothing but the latency
+     * metrics and the hall call index, which are safe for that, and the controller never
+     * reads a car while it steps.
+     */
+    private final class CarActor implements Runnable {
+        final Elevator elevator;
+        final PriorityQueue<SimulationEvent> events = new PriorityQueue<>();
+        long nextEventSequence;
+        // Messages sent to the car that haven't reached it yet, oldest first. Only the
+        // controller touches these; it posts them to the mailbox once they are due.
+        final ArrayDeque<CarMessage> inFlight = new ArrayDeque<>();
+        final LinkedBlockingQueue<CarMessage> mailbox = new LinkedBlockingQueue<>();
+        Thread thread;
+        Throwable failure;
+
+        CarActor(Elevator elevator) {
+            this.elevator = elevator;
+        }
+
+        // When the car next has something to do, or Integer.MAX_VALUE if it is idle
+        int nextTime() {
+            int time = events.isEmpty() ? Integer.MAX_VALUE : events.peek().time;
+            return inFlight.isEmpty() ? time : Math.min(time, inFlight.peek().time());
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                CarMessage message;
+                try {
+                    message = mailbox.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (message.kind() == CarMessage.Kind.STOP) {
+                    return;
+                }
+                try {
+                    if (message.kind() == CarMessage.Kind.STEP) {
+                        while (!events.isEmpty() && events.peek().time <= message.time()) {
+                            processEvent(events.poll());
+                        }
+                    } else {
+                        deliver(elevator, message, message.time());
+                    }
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+                if (message.kind() == CarMessage.Kind.STEP) {
+                    carsStepped.release();
+                }
+            }
+        }
+    }
+
+    private final BuildingConfig config;
+    // Hall calls waiting for a car, oldest first
+    private ArrayList<PendingHallCall> floorRequestsQueue = new ArrayList<>();
+    private final HallCallIndex hallCallIndex;
+    private final CarFleet fleet;
+    /*
+     * Ticks once for every car state change the dispatcher notices. A waiting call is only
+     * offered again to the cars that changed after it was last offered, found by walking
+     * back through the log of changes made since the previous dispatch began.
+     */
+    private long dispatchClock;
+    private long previousDispatchStart;
+    private final ArrayList<Elevator> changeLog = new ArrayList<>();
+    private long[] changeLogTimes = new long[16];
+    private final ArrayList<Elevator> candidates = new ArrayList<>();
+    // What candidates was last collected for: a clock value and the length of the log
+    private long candidatesSince = -1;
+    private int candidatesLogSize;
+    // While a dispatch is under way: the index of the call being offered, and how many calls
+    // before it are still waiting. The calls between those two have been assigned.
+    private int dispatchIndex = -1;
+    private int dispatchKept;
+    private int currentTime = 0;
+    private ArrayList<Elevator> elevators = new ArrayList<>();
+    private final List<Elevator> elevatorsView = Collections.unmodifiableList(elevators);
+    private DispatchStrategy dispatchStrategy = new LeastRequestsDispatchStrategy();
+    private final LatencyMetrics latencyMetrics;
+    private PriorityQueue<SimulationEvent> eventQueue = new PriorityQueue<>();
+    private long nextEventSequence = 0;
+    // True while a DISPATCH event is waiting in the event queue
+    private boolean dispatchPending;
+    private int requestsSubmitted = 0;
+    // Time of the last event processed, i.e. when the building last had something going on
+    private int lastEventTime = 0;
+    private ElevatorEventListener eventListener = ElevatorEventListener.NONE;
+    // Hot path counters, see ControllerCounters, and the state of the time unit under way
+    private long ticks;
+    private long tickNanos;
+    private long maxTickNanos;
+    private long dispatchPasses;
+    private long dispatchNanos;
+    private long maxDispatchNanos;
+    private long dispatchDecisions;
+    private long callsAssigned;
+    private int peakCallsWaiting;
+    private boolean timing;
+    private boolean ticking;
+    private boolean tickTimed;
+    private long tickStart;
+    private int tickEvents;
+    // Set, indexed by elevator ID, while the cars run as actors
+    private CarActor[] carActors;
+    private int messageDelay;
+    // Released once by every car that finishes a step
+    private final Semaphore carsStepped = new Semaphore(0);
+
+    public MultiElevatorController() {
+        this(BuildingConfig.DEFAULT);
+    }
+
+    public MultiElevatorController(BuildingConfig config) {
+        this.config = config;
+        this.latencyMetrics = new LatencyMetrics(config);
+        this.hallCallIndex = new HallCallIndex(config);
+        this.fleet = new CarFleet(config.numElevators());
+        for (int i = 0; i < config.numElevators(); i++) {
+            elevators.add(new Elevator(i, config, fleet, latencyMetrics, hallCallIndex));
+        }
+    }
+
+    public void handleFloorButtonPress(Request myRequest) {
+        if (myRequest.passengers > config.carCapacity() || myRequest.weight > config.ratedLoad()) {
+            throw new IllegalArgumentException("Request doesn't fit in an empty car: " + myRequest);
+        }
+        floorRequestsQueue.add(new PendingHallCall(myRequest));
+        requestsSubmitted++;
+        eventListener.onFloorButtonPressed(currentTime, myRequest);
+    }
+
+    /*
+     * Registers a hall call made while the simulation is running, to be dispatched when the
+     * clock next runs. Unlike calls read from a RequestSource, the call's time may already
+     * have passed, since it is the time the button was pressed.
+     */
+    void submitRequest(Request request) {
+        handleFloorButtonPress(request);
+        scheduleDispatch(currentTime);
+    }
+
+    /*
+     * Registers a button pressed inside a car while the simulation is running, and wakes the
+     * car if it was sitting idle.
+     */
+    void submitElevatorButtonPress(int elevatorID, int floor) {
+        if (floor < config.bottomFloor() || floor > config.topFloor()) {
+            throw new IllegalArgumentException("Floor " + floor + " is outside the building");
+        }
+        send(elevators.get(elevatorID), CarMessage.Kind.PRESS, null, floor);
+    }
+
+    int getCurrentTime() {
+        return currentTime;
+    }
+
+    /*
+     * From the next run on, runs every car as an actor on a virtual thread of its own, see
+     * CarActor, so the cars' work is spread over every core. Hall call assignments and
+     * car button presses reach a car messageDelay time units after they are sent.
+     *
+     * Without a delay a run comes out as it does with inline cars, except that calls a
+     * car had no room for are dispatched again only once every car has finished the time
+     * unit. The event listener is called from the cars' threads as well, so it has to be
+     * safe for that.
+     */
+    void useCarActors(int messageDelay) {
+        if (messageDelay < 0) {
+            throw new IllegalArgumentException("messageDelay must not be negative, got " + messageDelay);
+        }
+        this.messageDelay = messageDelay;
+        if (carActors != null) {
+            return;
+        }
+        carActors = new CarActor[elevators.size()];
+        for (Elevator elevator : elevators) {
+            carActors[elevator.elevatorID] = new CarActor(elevator);
+        }
+        // Each car takes its events along into its own queue
+        List<SimulationEvent> events = new ArrayList<>(eventQueue.size());
+        while (!eventQueue.isEmpty()) {
+            events.add(eventQueue.poll());
+        }
+        for (SimulationEvent event : events) {
+            if (event.elevator != null) {
+                scheduleEvent(event.time, event.type, event.elevator, null);
+            } else {
+                eventQueue.add(event);
+            }
+        }
+    }
+
+    /*
+     * Goes back to running the cars on the thread calling runSimulation. Messages still on
+     * their way to a car reach it right away.
+     */
+    void useInlineCars() {
+        CarActor[] actors = carActors;
+        if (actors == null) {
+            return;
+        }
+        carActors = null;
+        for (CarActor actor : actors) {
+            while (!actor.events.isEmpty()) {
+                SimulationEvent event = actor.events.poll();
+                scheduleEvent(event.time, event.type, event.elevator, null);
+            }
+        }
+        for (CarActor actor : actors) {
+            while (!actor.inFlight.isEmpty()) {
+                deliver(actor.elevator, actor.inFlight.poll(), currentTime);
+            }
+        }
+    }
+
+    /*
+     * Sets where the controller and its elevators report events. By default they are ignored.
+     */
+    public void setEventListener(ElevatorEventListener eventListener) {
+        this.eventListener = eventListener;
+        for (Elevator elevator : elevators) {
+            elevator.eventListener = eventListener;
+        }
+    }
+
+    void initializeVariables(int initialFloor) {
+        for (Elevator elevator : elevators) {
+            elevator.setCurrentFloor(initialFloor);
+            elevator.setDirection(Direction.IDLE);
+            elevator.el_floorRequestsQueue.clear();
+            elevator.elevatorButtonsPressed.clear();
+            Arrays.fill(elevator.callsInFlight, 0);
+            elevator.callsInFlightTotal = 0;
+            elevator.clearHallCalls();
+            elevator.floorsVisited = new ArrayList<>();
+            elevator.floorsVisitedShared = false;
+            elevator.eventPending = false;
+            elevator.floorsTravelled = 0;
+            elevator.stopsMade = 0;
+            elevator.directionChanges = 0;
+            elevator.passengersPickedUp = 0;
+            elevator.requestsReturned = 0;
+            elevator.clearRiders();
+            elevator.countRequests();
+            elevator.stateChanged();
+        }
+        if (carActors != null) {
+            for (CarActor actor : carActors) {
+                actor.events.clear();
+                actor.inFlight.clear();
+            }
+        }
+        latencyMetrics.reset();
+        hallCallIndex.clear();
+        floorRequestsQueue.clear();
+        changeLog.clear();
+        previousDispatchStart = dispatchClock;
+        eventQueue.clear();
+        dispatchPending = false;
+        requestsSubmitted = 0;
+        lastEventTime = 0;
+        currentTime = 0;
+        resetCounters();
+    }
+
+    /*
+     * Asks the dispatch strategy which car should serve the request. Returns null if no car
+     * should take it yet.
+     */
+    public Elevator getBestElevator(Request request) {
+        return selectElevator(request, elevatorsView);
+    }
+
+    private Elevator selectElevator(Request request, List<Elevator> candidates) {
+        ControllerEvents.DispatchDecision event = null;
+        if (ControllerEvents.isRecording()) {
+            event = new ControllerEvents.DispatchDecision();
+            event.begin();
+        }
+        Elevator bestElevator = dispatchStrategy.selectElevator(this, request, candidates);
+        dispatchDecisions++;
+        if (event != null && event.shouldCommit()) {
+            event.time = currentTime;
+            event.floor = request.floor;
+            event.direction = request.direction.name();
+            event.passengers = request.passengers;
+            event.candidates = candidates.size();
+            event.elevatorID = bestElevator != null ? bestElevator.elevatorID : -1;
+            event.strategy = dispatchStrategy.getClass().getSimpleName();
+            event.commit();
+        }
+        return bestElevator;
+    }
+
+    /*
+     * Sets how hall calls are assigned to cars. By default each call goes to the suitable car
+     * with the fewest requests, see LeastRequestsDispatchStrategy.
+     */
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    List<Elevator> getElevators() {
+        return elevatorsView;
+    }
+
+    // The state of every car, indexed by elevator ID
+    CarFleet getFleet() {
+        return fleet;
+    }
+
+    /*
+     * Returns the car with the lowest ID that has been assigned a hall call from the floor in
+     * the direction, or null if no car has.
+     */
+    Elevator getHallCallOwner(int floor, Direction direction) {
+        int elevatorID = hallCallIndex.firstOwner(floor, direction);
+        return elevatorID >= 0 ? elevators.get(elevatorID) : null;
+    }
+
+    BuildingConfig getConfig() {
+        return config;
+    }
+
+    /*
+     * Offers the waiting hall calls to the cars. A new call is offered to every car. A call
+     * that no car took before is only offered to the cars whose state has changed since,
+     * and skipped if there are none, since the other cars would turn it down again.
+     */
+    private void processRequests() {
+        ControllerEvents.DispatchPass event = null;
+        if (ControllerEvents.isRecording()) {
+            event = new ControllerEvents.DispatchPass();
+            event.begin();
+        }
+        long passStart = timing ? System.nanoTime() : 0;
+        int callsWaiting = floorRequestsQueue.size();
+        long dispatchStart = dispatchClock + 1;
+        trimChangeLog(previousDispatchStart);
+        previousDispatchStart = dispatchStart;
+        int carsChanged = 0;
+        for (int car = fleet.nextChanged(0); car >= 0; car = fleet.nextChanged(car + 1)) {
+            noteIfChanged(elevators.get(car));
+            carsChanged++;
+        }
+
+        int waiting = 0;
+        for (int i = 0; i < floorRequestsQueue.size(); i++) {
+            PendingHallCall call = floorRequestsQueue.get(i);
+            dispatchIndex = i;
+            dispatchKept = waiting;
+            Elevator bestElevator = null;
+            if (call.offeredAt == 0) {
+                bestElevator = getBestElevator(call.request);
+            } else if (collectCandidates(call.offeredAt)) {
+                bestElevator = selectElevator(call.request, candidates);
+            }
+            call.offeredAt = dispatchClock;
+            if (bestElevator != null) {
+                send(bestElevator, CarMessage.Kind.ASSIGN, call.request, 0);
+                noteIfChanged(bestElevator);
+            } else {
+                floorRequestsQueue.set(waiting++, call);
+            }
+        }
+        floorRequestsQueue.subList(waiting, floorRequestsQueue.size()).clear();
+        dispatchIndex = -1;
+
+        dispatchPasses++;
+        if (timing) {
+            long nanos = System.nanoTime() - passStart;
+            dispatchNanos += nanos;
+            maxDispatchNanos = Math.max(maxDispatchNanos, nanos);
+        }
+        callsAssigned += callsWaiting - waiting;
+        peakCallsWaiting = Math.max(peakCallsWaiting, callsWaiting);
+        if (event != null && event.shouldCommit()) {
+            event.time = currentTime;
+            event.callsWaiting = callsWaiting;
+            event.callsAssigned = callsWaiting - waiting;
+            event.carsChanged = carsChanged;
+            event.commit();
+        }
+    }
+
+    private void noteIfChanged(Elevator elevator) {
+        int car = elevator.getElevatorID();
+        if (fleet.stateVersion[car] == fleet.dispatchedVersion[car]) {
+            return;
+        }
+        fleet.dispatchedVersion[car] = fleet.stateVersion[car];
+        elevator.changedAt = ++dispatchClock;
+        if (changeLog.size() == changeLogTimes.length) {
+            changeLogTimes = Arrays.copyOf(changeLogTimes, changeLogTimes.length * 2);
+        }
+        changeLogTimes[changeLog.size()] = elevator.changedAt;
+        changeLog.add(elevator);
+    }
+
+    // Every waiting call was offered during the previous dispatch, so older changes are not needed
+    private void trimChangeLog(long since) {
+        int first = 0;
+        while (first < changeLog.size() && changeLogTimes[first] < since) {
+            first++;
+        }
+        System.arraycopy(changeLogTimes, first, changeLogTimes, 0, changeLog.size() - first);
+        changeLog.subList(0, first).clear();
+        candidatesSince = -1;
+    }
+
+    /*
+     * Fills candidates with the cars that changed after the given clock value, in ID order,
+     * and returns true if there are any.
+     */
+    private boolean collectCandidates(long since) {
+        // Calls offered at the same time in a row see the same cars, unless one changed since
+        if (since == candidatesSince && changeLog.size() == candidatesLogSize) {
+            return !candidates.isEmpty();
+        }
+        candidatesSince = since;
+        candidatesLogSize = changeLog.size();
+        candidates.clear();
+        for (int i = changeLog.size() - 1; i >= 0 && changeLogTimes[i] > since; i--) {
+            Elevator elevator = changeLog.get(i);
+            // Only a car's latest entry counts, so each car is collected once
+            if (elevator.changedAt == changeLogTimes[i]) {
+                candidates.add(elevator);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(Elevator::getElevatorID));
+        return !candidates.isEmpty();
+    }
+
+    // Returned calls are offered to every car again, in their place by time
+    private void addReturnedRequest(Request request) {
+        int index = floorRequestsQueue.size();
+        while (index > 0 && floorRequestsQueue.get(index - 1).request.time > request.time) {
+            index--;
+        }
+        floorRequestsQueue.add(index, new PendingHallCall(request));
+    }
+
+    /*
+     * Hands a hall call or button press to the car. Inline cars take it in at once, and so
+     * do cars running as actors if messages have no delay, since the controller only sends
+     * while every car waits between steps. Otherwise the car takes it in once it arrives,
+     * but a hall call is recorded against the car as soon as it is sent, so the calls
+     * dispatched in the meantime see who owns it and how busy the car is.
+     */
+    private void send(Elevator elevator, CarMessage.Kind kind, Request request, int floor) {
+        if (carActors == null || messageDelay == 0) {
+            receive(elevator, kind, currentTime, request, floor);
+            return;
+        }
+        if (kind == CarMessage.Kind.ASSIGN) {
+            elevator.callSent(request);
+        }
+        carActors[elevator.elevatorID].inFlight.add(new CarMessage(kind, currentTime + messageDelay, request, floor));
+    }
+
+    // A message sent with a delay reaches the car
+    private void deliver(Elevator elevator, CarMessage message, int time) {
+        if (message.kind() == CarMessage.Kind.ASSIGN) {
+            elevator.callArrived(message.request());
+        }
+        receive(elevator, message.kind(), time, message.request(), message.floor());
+    }
+
+    // The car takes in a hall call or button press, and wakes up if it was sitting idle
+    private void receive(Elevator elevator, CarMessage.Kind kind, int time, Request request, int floor) {
+        if (kind == CarMessage.Kind.ASSIGN) {
+            elevator.addRequest(request, time);
+        } else {
+            elevator.handleElevatorButtonPress(floor, time);
+        }
+        if (!elevator.eventPending) {
+            scheduleElevatorEvent(time, EventType.FLOOR_ARRIVAL, elevator);
+        }
+    }
+
+    // Events of cars running as actors go into their own queues
+    private void scheduleEvent(int time, EventType type, Elevator elevator, Request request) {
+        if (elevator != null && carActors != null) {
+            CarActor actor = carActors[elevator.elevatorID];
+            actor.events.add(new SimulationEvent(time, type, actor.nextEventSequence++, elevator, request));
+            return;
+        }
+        eventQueue.add(new SimulationEvent(time, type, nextEventSequence++, elevator, request));
+    }
+
+    private void scheduleElevatorEvent(int time, EventType type, Elevator elevator) {
+        elevator.eventPending = true;
+        scheduleEvent(time, type, elevator, null);
+    }
+
+    private void scheduleDispatch(int time) {
+        if (!dispatchPending) {
+            dispatchPending = true;
+            scheduleEvent(time, EventType.DISPATCH, null, null);
+        }
+    }
+
+    /*
+     * Called once a car is done at its current floor: it picks its next direction and
+     * moves one floor, or to its next stop if the building has Kinematics. If it still has
+     * work to do, its arrival is scheduled once the boarding passengers are in, the doors
+     * (if they were opened) have closed and the car has made the run. A car that has work
+     * left but no direction yet checks back on the next time unit.
+     */
+    private void departFloor(Elevator elevator, int doorCloseTime) {
+        int fromFloor = elevator.getCurrentFloor();
+        int passengersPickedUp = elevator.passengersPickedUp;
+        elevator.processElevatorRequests(currentTime);
+        // Hall calls a car had no room for go back to be dispatched again. Cars running as
+        // actors hand theirs back once every car has finished its step.
+        if (elevator.hasReturnedRequests() && carActors == null) {
+            elevator.drainReturnedRequests(this::addReturnedRequest);
+            scheduleDispatch(currentTime);
+        }
+        if (elevator.isActive()) {
+            int travelTime = 1;
+            if (elevator.getDirection() != Direction.IDLE) {
+                travelTime = transferTime(elevator.passengersPickedUp - passengersPickedUp)
+                        + runTime(Math.abs(elevator.getCurrentFloor() - fromFloor));
+            }
+            scheduleElevatorEvent(currentTime + doorCloseTime + travelTime, EventType.FLOOR_ARRIVAL, elevator);
+        }
+    }
+
+    // Time units a run over the given number of floors takes
+    private int runTime(int floors) {
+        Kinematics kinematics = config.kinematics();
+        if (kinematics == null) {
+            return config.floorTravelTime();
+        }
+        return Math.max(1, kinematics.ticks(kinematics.runTime(floors)));
+    }
+
+    // Time units the given number of passengers take to get in or out of a car
+    private int transferTime(int passengers) {
+        Kinematics kinematics = config.kinematics();
+        return kinematics != null ? kinematics.ticks(passengers * kinematics.transferTime()) : 0;
+    }
+
+    private void processEvent(SimulationEvent event) {
+        Elevator elevator = event.elevator;
+        if (elevator != null) {
+            elevator.eventPending = false;
+        }
+        switch (event.type) {
+            case REQUEST_ARRIVAL:
+                handleFloorButtonPress(event.request);
+                scheduleDispatch(currentTime);
+                break;
+            case DISPATCH:
+                dispatchPending = false;
+                processRequests();
+                // Requests no car could take yet are retried once the cars have moved
+                if (!floorRequestsQueue.isEmpty()) {
+                    scheduleDispatch(currentTime + 1);
+                }
+                break;
+            case FLOOR_ARRIVAL:
+                if (elevator.hasStopAtCurrentFloor()) {
+                    scheduleElevatorEvent(currentTime, EventType.DOOR_OPEN, elevator);
+                } else {
+                    departFloor(elevator, 0);
+                }
+                break;
+            case DOOR_OPEN:
+                elevator.stopsMade++;
+                if (elevator.hasPassengersExiting()) {
+                    scheduleElevatorEvent(currentTime + config.doorOpenTime(), EventType.PASSENGER_EXIT, elevator);
+                } else {
+                    scheduleElevatorEvent(currentTime + config.doorOpenTime(), EventType.DOOR_CLOSE, elevator);
+                }
+                break;
+            case PASSENGER_EXIT:
+                int passengersExited = elevator.letPassengersExit(currentTime);
+                scheduleElevatorEvent(currentTime + transferTime(passengersExited), EventType.DOOR_CLOSE, elevator);
+                break;
+            case DOOR_CLOSE:
+                departFloor(elevator, config.doorCloseTime());
+                break;
+        }
+    }
+
+    /*
+     * Runs the simulation for totalSimTime time units. Rather than stepping through every
+     * time unit, the simulation jumps from one event to the next, so stretches where every
+     * elevator is idle and no requests are pending cost nothing.
+     */
+    public void runSimulation(Map<Integer, List<Request>> mapOfTimesToRequest, int totalSimTime) {
+        runSimulation(RequestSource.of(mapOfTimesToRequest), totalSimTime);
+    }
+
+    /*
+     * Runs the simulation for totalSimTime time units, pulling requests from the source only
+     * as the clock reaches them, so at most one request is read ahead no matter how long the
+     * trace is. Requests older than the current time are skipped, and requests past the end
+     * of the run are left in the source.
+     */
+    public void runSimulation(RequestSource requests, int totalSimTime) {
+        int endTime = currentTime + totalSimTime;
+        startCarActors();
+        ControllerEvents.Tick tick = null;
+        try {
+            while (true) {
+                /*
+                 * Every arrival up to the time of the next event is queued before that event
+                 * runs, so arrivals still come before anything else happening at their time
+                 */
+                int nextTime = nextEventTime();
+                Request next;
+                while ((next = requests.peek()) != null && next.time < endTime && next.time <= nextTime) {
+                    requests.poll();
+                    if (next.time >= currentTime) {
+                        scheduleEvent(next.time, EventType.REQUEST_ARRIVAL, null, next);
+                        nextTime = next.time;
+                    }
+                }
+                if (nextTime >= endTime) {
+                    break;
+                }
+                if (!ticking || nextTime != currentTime) {
+                    endTick(tick);
+                    tick = beginTick();
+                }
+                currentTime = nextTime;
+                lastEventTime = currentTime;
+                tickEvents++;
+                // Arrivals and dispatch come before the cars act on the same instant
+                if (!eventQueue.isEmpty() && eventQueue.peek().time == nextTime) {
+                    processEvent(eventQueue.poll());
+                } else {
+                    stepCarActors();
+                }
+            }
+        } finally {
+            endTick(tick);
+            stopCarActors();
+        }
+        currentTime = endTime;
+        eventListener.onRunComplete(currentTime);
+    }
+
+    /*
+     * A tick is every event of one time unit. Its wall clock time is only read when it is
+     * recorded or timing is on, since that costs more than the rest of the counting. Its
+     * Tick event is only created while a flight recording is running, and null otherwise.
+     */
+    private ControllerEvents.Tick beginTick() {
+        ControllerEvents.Tick tick = null;
+        if (ControllerEvents.isRecording()) {
+            tick = new ControllerEvents.Tick();
+            tick.begin();
+        }
+        ticking = true;
+        tickTimed = timing || (tick != null && tick.isEnabled());
+        if (tickTimed) {
+            tickStart = System.nanoTime();
+        }
+        tickEvents = 0;
+        return tick;
+    }
+
+    private void endTick(ControllerEvents.Tick tick) {
+        if (!ticking) {
+            return;
+        }
+        ticking = false;
+        ticks++;
+        if (tickTimed) {
+            long nanos = System.nanoTime() - tickStart;
+            tickNanos += nanos;
+            maxTickNanos = Math.max(maxTickNanos, nanos);
+        }
+        if (tick != null && tick.shouldCommit()) {
+            tick.time = currentTime;
+            tick.events = tickEvents;
+            tick.callsWaiting = floorRequestsQueue.size();
+            tick.commit();
+        }
+    }
+
+    private int nextEventTime() {
+        int time = eventQueue.isEmpty() ? Integer.MAX_VALUE : eventQueue.peek().time;
+        if (carActors != null) {
+            for (CarActor actor : carActors) {
+                time = Math.min(time, actor.nextTime());
+            }
+        }
+        return time;
+    }
+
+    /*
+     * Posts the messages that reach a car by now, steps every car with something to do
+     * now and waits for all of them. Calls the cars gave back are queued in car order, so
+     * a run comes out the same however the cars' threads were scheduled.
+     */
+    private void stepCarActors() {
+        int stepping = 0;
+        for (CarActor actor : carActors) {
+            if (actor.nextTime() > currentTime) {
+                continue;
+            }
+            while (!actor.inFlight.isEmpty() && actor.inFlight.peek().time() <= currentTime) {
+                actor.mailbox.add(actor.inFlight.poll());
+            }
+            actor.mailbox.add(new CarMessage(CarMessage.Kind.STEP, currentTime, null, 0));
+            stepping++;
+        }
+        carsStepped.acquireUninterruptibly(stepping);
+        for (CarActor actor : carActors) {
+            if (actor.failure != null) {
+                throw new IllegalStateException("Elevator " + actor.elevator.elevatorID + " failed", actor.failure);
+            }
+            if (actor.elevator.hasReturnedRequests()) {
+                actor.elevator.drainReturnedRequests(this::addReturnedRequest);
+                scheduleDispatch(currentTime);
+            }
+        }
+    }
+
+    private void startCarActors() {
+        if (carActors == null) {
+            return;
+        }
+        for (CarActor actor : carActors) {
+            actor.thread = Thread.ofVirtual().name("elevator-" + actor.elevator.elevatorID).start(actor);
+        }
+    }
+
+    private void stopCarActors() {
+        if (carActors == null) {
+            return;
+        }
+        for (CarActor actor : carActors) {
+            actor.mailbox.add(new CarMessage(CarMessage.Kind.STOP, currentTime, null, 0));
+        }
+        boolean interrupted = false;
+        for (CarActor actor : carActors) {
+            while (true) {
+                try {
+                    actor.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            actor.thread = null;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Summarizes the run so far. Requests still waiting in a hall or car queue count as pending.
+     */
+    public SimulationMetrics getMetrics() {
+        int passengersPickedUp = 0;
+        int pendingRequests = floorRequestsQueue.size();
+        long floorsTravelled = 0;
+        long stopsMade = 0;
+        long requestsReturned = 0;
+        for (Elevator elevator : elevators) {
+            passengersPickedUp += elevator.passengersPickedUp;
+            pendingRequests += elevator.el_floorRequestsQueue.size();
+            floorsTravelled += elevator.floorsTravelled;
+            stopsMade += elevator.stopsMade;
+            requestsReturned += elevator.requestsReturned;
+        }
+        return new SimulationMetrics(config, requestsSubmitted, passengersPickedUp, pendingRequests,
+                floorsTravelled, stopsMade, requestsReturned, lastEventTime, latencyMetrics.getWaitTimes().summarize(),
+                latencyMetrics.getRideTimes().summarize(), latencyMetrics.getJourneyTimes().summarize());
+    }
+
+    /*
+     * Counts of the work the controller's hot paths have done so far, see ControllerCounters.
+     */
+    ControllerCounters getCounters() {
+        long directionChanges = 0;
+        for (Elevator elevator : elevators) {
+            directionChanges += elevator.directionChanges;
+        }
+        return new ControllerCounters(ticks, tickNanos, maxTickNanos, dispatchPasses, dispatchNanos,
+                maxDispatchNanos, dispatchDecisions, callsAssigned, floorRequestsQueue.size(), peakCallsWaiting,
+                directionChanges);
+    }
+
+    /*
+     * Times every tick and dispatch pass into ControllerCounters, and every tick even when
+     * no flight recording takes Tick events. Off by default.
+     */
+    void setTiming(boolean timing) {
+        this.timing = timing;
+    }
+
+    private void resetCounters() {
+        ticks = 0;
+        tickNanos = 0;
+        maxTickNanos = 0;
+        dispatchPasses = 0;
+        dispatchNanos = 0;
+        maxDispatchNanos = 0;
+        dispatchDecisions = 0;
+        callsAssigned = 0;
+        peakCallsWaiting = 0;
+    }
+
+    /*
+     * Wait, ride and journey time histograms of every passenger delivered so far, for the
+     * whole building, per car and per floor.
+     */
+    LatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /*
+     * The state of a controller at some point between runs: its cars, the hall calls
+     * waiting for one, the events it has yet to process and its metrics. A snapshot never
+     * changes, however the controller goes on, and can be restored into the controller it
+     * was taken from or into any controller of the same building, as often as needed.
+     */
+    static final class Snapshot {
+        private final MultiElevatorController state;
+
+        private Snapshot(MultiElevatorController state) {
+            this.state = state;
+        }
+
+        int getTime() {
+            return state.currentTime;
+        }
+    }
+
+    /*
+     * Takes a snapshot of the controller. Histograms and the floors each car has visited
+     * are shared with the controller until one side records into them, so a snapshot
+     * costs about as much as the cars and the calls and events waiting.
+     */
+    Snapshot snapshot() {
+        MultiElevatorController state = new MultiElevatorController(config);
+        state.copyStateFrom(this, true);
+        return new Snapshot(state);
+    }
+
+    /*
+     * Puts the controller back into the state of the snapshot. The event listener and the
+     * dispatch strategy stay as they are.
+     */
+    void restore(Snapshot snapshot) {
+        if (!snapshot.state.config.equals(config)) {
+            throw new IllegalArgumentException("Snapshot is of a different building");
+        }
+        if (dispatchIndex >= 0) {
+            throw new IllegalStateException("Can't restore a controller while it is dispatching");
+        }
+        copyStateFrom(snapshot.state, true);
+    }
+
+    /*
+     * A new controller in the same state as this one, that runs on independently of it,
+     * e.g. to try out what a decision would lead to. The fork reports no events, and
+     * dispatches with its own copy of the dispatch strategy, see DispatchStrategy.forkedCopy.
+     * A fork can also be taken while this controller is dispatching, i.e. from within a
+     * dispatch strategy. The calls still waiting then are dispatched by the fork at the
+     * same time again.
+     */
+    MultiElevatorController fork() {
+        MultiElevatorController fork = new MultiElevatorController(config);
+        fork.copyStateFrom(this, true);
+        fork.dispatchStrategy = dispatchStrategy.forkedCopy();
+        return fork;
+    }
+
+    /*
+     * A fork for looking ahead, when only what happens from now on matters: its latency
+     * metrics and the floors its cars have visited start out empty, and nothing is shared
+     * with this controller, so it can run on another thread right away.
+     */
+    MultiElevatorController lookaheadFork() {
+        MultiElevatorController fork = new MultiElevatorController(config);
+        fork.copyStateFrom(this, false);
+        fork.dispatchStrategy = dispatchStrategy.forkedCopy();
+        return fork;
+    }
+
+    // Whether the controller can be forked, which it can't while its cars run as actors
+    boolean canFork() {
+        return carActors == null;
+    }
+
+    /*
+     * Assigns a hall call to the car right away, rather than leaving it to the dispatch
+     * strategy. A call that is waiting for a car stops waiting, other calls are taken as
+     * new calls. Meant for forks, to try out where a call could go.
+     */
+    void assign(Request request, int elevatorID) {
+        for (int i = 0; i < floorRequestsQueue.size(); i++) {
+            if (floorRequestsQueue.get(i).request == request) {
+                floorRequestsQueue.remove(i);
+                break;
+            }
+        }
+        Elevator elevator = elevators.get(elevatorID);
+        send(elevator, CarMessage.Kind.ASSIGN, request, 0);
+        noteIfChanged(elevator);
+    }
+
+    /*
+     * Hands every hall call no car has picked up yet to the action: those waiting for a
+     * car, then those assigned to each car.
+     */
+    void forEachWaitingRequest(Consumer<Request> action) {
+        for (PendingHallCall call : floorRequestsQueue) {
+            action.accept(call.request);
+        }
+        for (Elevator elevator : elevators) {
+            elevator.el_floorRequestsQueue.forEach(action);
+        }
+    }
+
+    /*
+     * Makes this controller's state that of the source. Calls waiting for a car are
+     * offered to every car on the next dispatch. Cars that turned them down before and
+     * haven't changed since turn them down again, so they end up where they would have
+     * in the source. Without history, metrics and visited floors start out empty.
+     */
+    private void copyStateFrom(MultiElevatorController source, boolean history) {
+        if (carActors != null || source.carActors != null) {
+            throw new IllegalStateException("Cars running as actors can't be copied");
+        }
+        for (Elevator elevator : elevators) {
+            elevator.copyFrom(source.elevators.get(elevator.elevatorID), history);
+        }
+        hallCallIndex.copyFrom(source.hallCallIndex);
+        if (history) {
+            latencyMetrics.copyFrom(source.latencyMetrics);
+        } else {
+            latencyMetrics.reset();
+        }
+        // Mid-dispatch, the calls already assigned during this dispatch are left out
+        floorRequestsQueue.clear();
+        for (int i = 0; i < source.floorRequestsQueue.size(); i++) {
+            if (source.dispatchIndex < 0 || i < source.dispatchKept || i >= source.dispatchIndex) {
+                floorRequestsQueue.add(new PendingHallCall(source.floorRequestsQueue.get(i).request));
+            }
+        }
+        changeLog.clear();
+        candidates.clear();
+        candidatesSince = -1;
+        previousDispatchStart = dispatchClock;
+        // Events keep their sequence numbers, so they come out of the queue in the same order
+        eventQueue.clear();
+        for (SimulationEvent event : source.eventQueue) {
+            Elevator elevator = event.elevator != null ? elevators.get(event.elevator.elevatorID) : null;
+            eventQueue.add(new SimulationEvent(event.time, event.type, event.sequence, elevator, event.request));
+        }
+        nextEventSequence = source.nextEventSequence;
+        dispatchPending = source.dispatchPending;
+        requestsSubmitted = source.requestsSubmitted;
+        lastEventTime = source.lastEventTime;
+        currentTime = source.currentTime;
+        ticks = source.ticks;
+        tickNanos = source.tickNanos;
+        maxTickNanos = source.maxTickNanos;
+        dispatchPasses = source.dispatchPasses;
+        dispatchNanos = source.dispatchNanos;
+        maxDispatchNanos = source.maxDispatchNanos;
+        dispatchDecisions = source.dispatchDecisions;
+        callsAssigned = source.callsAssigned;
+        peakCallsWaiting = source.peakCallsWaiting;
+        if (source.dispatchIndex >= 0) {
+            scheduleDispatch(currentTime);
+        }
+    }
+
+    /*
+     * Test Case 0: Elevator starts on floor 1.
+     * Time 0: 2 users on Floor 1 hit UP to go to floors 10 and 3.
+     * Time 1: user on Floor 3 hits DOWN to go to floor 2.
+     * Expected result: Elevator 0 goes to floors 1 -> 3 -> 10
+     * and Elevator 1 goes to floors  3 -> 2
+     */
+    public static void testCase0() {
+
+        System.out.println("START TEST CASE 0:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0),
+                new Request(1, Direction.UP, 3, 0)));
+        mapOfTimesToRequest.put(1,
+                Arrays.asList(new Request(3, Direction.DOWN, 2, 1)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(1, 3, 10));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(3, 2));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 0:--------------------------------------------------------------------------------------------------");
+
+    }
+
+    /*
+     * Test Case 1: Elevator starts on floor 10.
+     * Time 0: 3 users on Floor 10 hit Down to go to floors 1, 3, and 4.
+     * Time 1: user on Floor 3 hits Up to go to floor 4.
+     * Expected result: Elevator 0 goes to floors 10 -> 4 -> 3 -> 1.
+     * and Elevator 1 goes to floors 3 -> 4
+     */
+    public static void testCase1() {
+        System.out.println("START TEST CASE 1:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(10);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(10, Direction.DOWN, 1, 0),
+                new Request(10, Direction.DOWN, 3, 0),
+                new Request(10, Direction.DOWN, 4, 0)));
+        mapOfTimesToRequest.put(1,
+                Arrays.asList(new Request(3, Direction.UP, 4, 1)));
+
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(10, 4, 3, 1));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(3, 4));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+
+        System.out.println("END TEST CASE 1:--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 2: Elevator starts on floor 5,
+     * Time 0: User on Floor 8 presses Down to go to 2, user on Floor 7 presses UP
+     * to go to 10
+     * Time 0: User on Floor 3 presses UP to go to 4 and User on Floor 3 presses
+     * DOWN to go to 2.
+     * Expected result, Elevator 0: 8 -> 3 -> 2 
+     * Elevator 1: 7 -> 10 -> 3 -> 4.
+     */
+    public static void testCase2() {
+        System.out.println("START TEST CASE 2:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(5);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(8, Direction.DOWN, 2, 0),
+                new Request(7, Direction.UP, 10, 0),
+                new Request(3, Direction.UP, 4, 0),
+                new Request(3, Direction.DOWN, 2, 0)));
+
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList( 8, 3, 2));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(7, 10, 3, 4));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 2--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 3: Elevator starts on floor 1,
+     * Time 0: User on Floor 3 presses Down to go to 2
+     * Time 1: User on Floor 10 presses Down to go to 1.
+     * Expected Results: Elevator 0: 3 -> 2
+     * Elevator 1: 10 -> 1
+     */
+    public static void testCase3() {
+        System.out.println("START TEST CASE 3:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(3, Direction.DOWN, 2, 0)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(10, Direction.DOWN, 1, 1)));
+
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(3, 2));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(10, 1));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 3:--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 4: Elevator starts on floor 1,
+     * Time 0: User on Floor 5 presses Up to go to 8
+     * Time 0: User on Floor 3 presses Down to go to 2
+     * Time 0: User on Floor 1 presses Up to go to 3
+     * Time 1: User on Floor 2 presses Up to to 4
+     * Expected Result: Elevtor 0: 2 -> 3 -> 4 -> 2
+     * Elevator 1: 1 -> 3 -> 5 ->8
+     */
+    public static void testCase4() {
+        System.out.println("START TEST CASE 4:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.UP, 8, 0),
+                new Request(3, Direction.DOWN, 2, 0),
+                new Request(1, Direction.UP, 3, 0)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(2, Direction.UP, 4, 1)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(1, 3, 5, 8));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(2, 3, 4, 2));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 4:--------------------------------------------------------------------------------------------------");
+    }
+
+    /* Test Case 5: 
+     * Elevator 0 starts at floor 1, IDLE
+     * Elevator 1 starts at floor 10, IDLE
+     * Time 0: Requests are made from floors 2, 3, 4, 5, 6, 7 (all UP to floor 10)
+     * Expected: Elevator 0: 2 -> 4 -> 5 -> 6 -> 7 -> 10
+     * Elevator 1: 3 -> 10
+     */
+    public static void testCase5() {
+        System.out.println("START TEST CASE 5:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        controller.elevators.get(1).setCurrentFloor(10);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(2, Direction.UP, 10, 0),
+                new Request(3, Direction.UP, 10, 0),
+                new Request(4, Direction.UP, 10, 0),
+                new Request(5, Direction.UP, 10, 0),
+                new Request(6, Direction.UP, 10, 0),
+                new Request(7, Direction.UP, 10, 0)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(2, 4, 5, 6, 7, 10));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(3, 10));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 5--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 6
+     * Elevator 0: starts at floor 10
+     * Elevator 1: starts at floor 1
+     * Time 0: Requests are made from floors 9, 8, 7, 6, 5, 4 (all DOWN to floor 1).
+     * 
+     */
+    public static void testCase6() {
+        System.out.println("START TEST CASE 6:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(10);
+        controller.elevators.get(1).setCurrentFloor(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(9, Direction.DOWN, 1, 0),
+                new Request(8, Direction.DOWN, 1, 0),
+                new Request(7, Direction.DOWN, 1, 0),
+                new Request(6, Direction.DOWN, 1, 0),
+                new Request(5, Direction.DOWN, 1, 0),
+                new Request(4, Direction.DOWN, 1, 0)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(9, 7, 6, 5, 4, 1));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(8, 1));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 6--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 7: Three elevators in a 20 story building numbered from 0 to 19, all
+     * starting on floor 0.
+     * Time 0: User on Floor 0 presses Up to go to 19
+     * Time 0: User on Floor 12 presses Down to go to 0
+     * Time 0: User on Floor 5 presses Up to go to 9
+     * Expected: Elevator 0: 0 -> 19
+     * Elevator 1: 12 -> 0
+     * Elevator 2: 5 -> 9
+     */
+    public static void testCase7() {
+        System.out.println("START TEST CASE 7:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(20, 0).withNumElevators(3).withSimTime(40);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(0);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(0, Direction.UP, 19, 0),
+                new Request(12, Direction.DOWN, 0, 0),
+                new Request(5, Direction.UP, 9, 0)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>(
+                Arrays.asList(0, 19));
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(12, 0));
+        ArrayList<Integer> expectedFloorsVisitedE3 = new ArrayList<>(
+                Arrays.asList(5, 9));
+        controller.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert controller.elevators.get(0).getFloorsVisited().equals(expectedFloorsVisitedE1);
+        assert controller.elevators.get(1).getFloorsVisited().equals(expectedFloorsVisitedE2);
+        assert controller.elevators.get(2).getFloorsVisited().equals(expectedFloorsVisitedE3);
+        System.out.println("END TEST CASE 7--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 8: Parameter sweep over banks of 1 to 4 elevators in the default building.
+     * Time 0: Users on floors 2 to 7 press Up to go to floor 10
+     * Time 3: Users on floors 9 and 8 press Down to go to floor 1
+     * Expected: every configuration picks up all 8 passengers, and running the sweep in
+     * parallel gives the same metrics as running each configuration on its own.
+     */
+    public static void testCase8() {
+        System.out.println("START TEST CASE 8:--------------------------------------------------------------------------------------------------");
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(2, Direction.UP, 10, 0),
+                new Request(3, Direction.UP, 10, 0),
+                new Request(4, Direction.UP, 10, 0),
+                new Request(5, Direction.UP, 10, 0),
+                new Request(6, Direction.UP, 10, 0),
+                new Request(7, Direction.UP, 10, 0)));
+        mapOfTimesToRequest.put(3, Arrays.asList(
+                new Request(9, Direction.DOWN, 1, 3),
+                new Request(8, Direction.DOWN, 1, 3)));
+        List<BuildingConfig> configs = new ArrayList<>();
+        for (int numElevators = 1; numElevators <= 4; numElevators++) {
+            configs.add(BuildingConfig.DEFAULT.withNumElevators(numElevators));
+        }
+        List<SimulationMetrics> results = ParameterSweep.run(configs, mapOfTimesToRequest);
+        assert results.size() == configs.size();
+        for (int i = 0; i < configs.size(); i++) {
+            SimulationMetrics result = results.get(i);
+            assert result.config().equals(configs.get(i));
+            assert result.requestsSubmitted() == 8;
+            assert result.passengersPickedUp() == 8;
+            assert result.pendingRequests() == 0;
+            assert result.equals(ParameterSweep.runOne(configs.get(i), mapOfTimesToRequest));
+        }
+        System.out.println("END TEST CASE 8--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 9: Same scenario as Test Case 0, recorded with the binary trace writer.
+     * Expected: the trace is a whole number of 20 byte records, starts with the floor button
+     * press on floor 1 at time 0, and records all 3 passengers entering.
+     */
+    public static void testCase9() {
+        System.out.println("START TEST CASE 9:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        java.io.ByteArrayOutputStream trace = new java.io.ByteArrayOutputStream();
+        controller.setEventListener(new BinaryTraceWriter(trace));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0),
+                new Request(1, Direction.UP, 3, 0)));
+        mapOfTimesToRequest.put(1,
+                Arrays.asList(new Request(3, Direction.DOWN, 2, 1)));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+
+        java.nio.ByteBuffer records = java.nio.ByteBuffer.wrap(trace.toByteArray())
+                .order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        assert records.remaining() > 0 && records.remaining() % BinaryTraceWriter.RECORD_SIZE == 0;
+        assert records.getInt(0) == 0;
+        assert records.get(4) == BinaryTraceWriter.FLOOR_BUTTON_RECORD;
+        assert records.getInt(8) == 1 && records.getInt(12) == 10;
+        int passengersEntered = 0;
+        for (int offset = 0; offset < records.limit(); offset += BinaryTraceWriter.RECORD_SIZE) {
+            if (records.get(offset + 4) == BinaryTraceWriter.PASSENGER_ENTER_RECORD) {
+                passengersEntered++;
+            }
+        }
+        assert passengersEntered == 3;
+        System.out.println("END TEST CASE 9--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 10: ETA dispatch. Elevator 0 starts on floor 1, Elevator 1 on floor 9.
+     * Time 0: User on Floor 8 presses Down to go to 1
+     * The least requests strategy would pick Elevator 0, the first of two equally busy cars.
+     * The ETA strategy picks Elevator 1, which is one floor away instead of seven.
+     * Expected: Elevator 0 stays put. Elevator 1: 8 -> 1
+     */
+    public static void testCase10() {
+        System.out.println("START TEST CASE 10:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.setDispatchStrategy(new EtaDispatchStrategy());
+        controller.initializeVariables(1);
+        controller.elevators.get(1).setCurrentFloor(9);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(8, Direction.DOWN, 1, 0)));
+        ArrayList<Integer> expectedFloorsVisitedE1 = new ArrayList<>();
+        ArrayList<Integer> expectedFloorsVisitedE2 = new ArrayList<>(
+                Arrays.asList(8, 1));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        ArrayList<Integer> floorsVisitedE1 = controller.elevators.get(0).getFloorsVisited();
+        ArrayList<Integer> floorsVisitedE2 = controller.elevators.get(1).getFloorsVisited();
+        assert floorsVisitedE1.equals(expectedFloorsVisitedE1);
+        assert floorsVisitedE2.equals(expectedFloorsVisitedE2);
+        System.out.println("END TEST CASE 10--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * One passenger called at floor 3 and delivered to floor 6: waits while the car climbs two
+     * floors, then rides three. The histogram percentiles are checked on a known distribution.
+     */
+    public static void testCase11() {
+        System.out.println("START TEST CASE 11:--------------------------------------------------------------------------------------------------");
+        MultiElevatorController controller = new MultiElevatorController(BuildingConfig.DEFAULT);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(3, Direction.UP, 6, 0)));
+        controller.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+        SimulationMetrics metrics = controller.getMetrics();
+        assert metrics.waitTime().equals(new LatencySummary(1, 2.0, 2, 2, 2, 2));
+        assert metrics.rideTime().equals(new LatencySummary(1, 3.0, 3, 3, 3, 3));
+        assert metrics.journeyTime().equals(new LatencySummary(1, 5.0, 5, 5, 5, 5));
+        assert controller.getLatencyMetrics().getJourneyTimesForFloor(3).getCount() == 1;
+        assert controller.getLatencyMetrics().getJourneyTimesForFloor(1).getCount() == 0;
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assert histogram.getValueAtPercentile(50) == 50;
+        assert histogram.getValueAtPercentile(99) == 99;
+        assert histogram.getMax() == 100;
+        System.out.println("END TEST CASE 11--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * The same schedule read from an in-memory map, a CSV trace played in two runs and a JSONL
+     * trace leaves every car with the same itinerary. A trace out of time order is rejected.
+     */
+    public static void testCase12() {
+        System.out.println("START TEST CASE 12:--------------------------------------------------------------------------------------------------");
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.UP, 8, 0),
+                new Request(3, Direction.DOWN, 2, 0)));
+        mapOfTimesToRequest.put(4, Arrays.asList(
+                new Request(9, Direction.DOWN, 1, 4)));
+        mapOfTimesToRequest.put(12, Arrays.asList(
+                new Request(2, Direction.UP, 10, 12)));
+        String csv = "floor,direction,destination,time\n5,UP,8,0\n3,down,2,0\n\n# rush starts\n9,DOWN,1,4\r\n2,UP,10,12";
+        String jsonl = "{\"floor\":5,\"direction\":\"UP\",\"destination\":8,\"time\":0}\n"
+                + "{\"time\":0, \"floor\":3, \"destination\":2, \"direction\":\"DOWN\", \"badge\":\"A17\"}\n"
+                + "{\"floor\":9,\"direction\":\"DOWN\",\"destination\":1,\"time\":4}\n"
+                + "{\"floor\":2,\"direction\":\"UP\",\"destination\":10,\"time\":12}\n";
+
+        MultiElevatorController fromMap = new MultiElevatorController(BuildingConfig.DEFAULT);
+        fromMap.setEventListener(new TextEventLogger(System.out));
+        fromMap.initializeVariables(1);
+        fromMap.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+
+        MultiElevatorController fromCsv = new MultiElevatorController(BuildingConfig.DEFAULT);
+        MultiElevatorController fromJsonl = new MultiElevatorController(BuildingConfig.DEFAULT);
+        fromCsv.initializeVariables(1);
+        fromJsonl.initializeVariables(1);
+        try {
+            java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("traces");
+            java.nio.file.Path csvTrace = java.nio.file.Files.writeString(directory.resolve("trace.csv"), csv);
+            java.nio.file.Path jsonlTrace = java.nio.file.Files.writeString(directory.resolve("trace.jsonl"), jsonl);
+            try (TraceReader requests = TraceReader.open(csvTrace)) {
+                fromCsv.runSimulation(requests, 10);
+                fromCsv.runSimulation(requests, BuildingConfig.DEFAULT.simTime() - 10);
+            }
+            try (TraceReader requests = TraceReader.open(jsonlTrace)) {
+                fromJsonl.runSimulation(requests, BuildingConfig.DEFAULT.simTime());
+            }
+            java.nio.file.Files.delete(csvTrace);
+            java.nio.file.Files.delete(jsonlTrace);
+            java.nio.file.Files.delete(directory);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        for (int i = 0; i < BuildingConfig.DEFAULT.numElevators(); i++) {
+            assert fromCsv.elevators.get(i).getFloorsVisited().equals(fromMap.elevators.get(i).getFloorsVisited());
+            assert fromJsonl.elevators.get(i).getFloorsVisited().equals(fromMap.elevators.get(i).getFloorsVisited());
+        }
+        assert fromCsv.getMetrics().equals(fromMap.getMetrics());
+        assert fromJsonl.getMetrics().equals(fromMap.getMetrics());
+
+        TraceReader outOfOrder = new TraceReader(java.nio.channels.Channels.newChannel(
+                new java.io.ByteArrayInputStream("5,UP,8,3\n3,DOWN,2,1\n".getBytes())), TraceReader.Format.CSV);
+        assert outOfOrder.poll().time == 3;
+        boolean rejected = false;
+        try {
+            outOfOrder.poll();
+        } catch (IllegalArgumentException e) {
+            rejected = e.getMessage().startsWith("Trace line 2");
+        }
+        assert rejected;
+        System.out.println("END TEST CASE 12--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * A text trace converted to the binary format replays like the original schedule, group
+     * sizes and weights included. The run's recorded events, read back through small
+     * mapping windows, replay to an identical recording, and diff against a run with
+     * another dispatch strategy.
+     */
+    public static void testCase13() {
+        System.out.println("START TEST CASE 13:--------------------------------------------------------------------------------------------------");
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(5, Direction.UP, 8, 0),
+                new Request(3, Direction.DOWN, 2, 0)));
+        mapOfTimesToRequest.put(4, Arrays.asList(
+                new Request(9, Direction.DOWN, 1, 4, 3, 240)));
+        mapOfTimesToRequest.put(12, Arrays.asList(
+                new Request(2, Direction.UP, 10, 12)));
+        MultiElevatorController fromMap = new MultiElevatorController(BuildingConfig.DEFAULT);
+        fromMap.setEventListener(new TextEventLogger(System.out));
+        fromMap.initializeVariables(1);
+        fromMap.runSimulation(mapOfTimesToRequest, BuildingConfig.DEFAULT.simTime());
+
+        try {
+            java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("traces");
+            java.nio.file.Path textTrace = java.nio.file.Files.writeString(directory.resolve("trace.csv"),
+                    "5,UP,8,0\n3,DOWN,2,0\n9,DOWN,1,4,3,240\n2,UP,10,12\n");
+            java.nio.file.Path requestTrace = directory.resolve("requests.bin");
+            java.nio.file.Path recorded = directory.resolve("recorded.bin");
+            java.nio.file.Path replayed = directory.resolve("replayed.bin");
+            java.nio.file.Path withEta = directory.resolve("eta.bin");
+            assert TraceConverter.convert(textTrace, requestTrace) == 4;
+
+            MultiElevatorController fromBinary = new MultiElevatorController(BuildingConfig.DEFAULT);
+            fromBinary.initializeVariables(1);
+            try (BinaryTraceReader requests = BinaryTraceReader.open(requestTrace);
+                    BinaryTraceWriter events = BinaryTraceWriter.map(recorded, 3)) {
+                assert requests.getRecordCount() == 4;
+                fromBinary.setEventListener(events);
+                fromBinary.runSimulation(requests, BuildingConfig.DEFAULT.simTime());
+            }
+            assert fromBinary.getMetrics().equals(fromMap.getMetrics());
+
+            int passengersEntered = 0;
+            try (BinaryTraceReader events = BinaryTraceReader.open(recorded, 2)) {
+                assert events.next() && events.type() == BinaryTraceWriter.FLOOR_BUTTON_RECORD;
+                assert events.time() == 0 && events.floor() == 5 && events.direction() == Direction.UP
+                        && events.destination() == 8 && events.passengers() == 1
+                        && events.weight() == Request.PASSENGER_WEIGHT;
+                while (events.next()) {
+                    if (events.type() == BinaryTraceWriter.FLOOR_BUTTON_RECORD && events.floor() == 9) {
+                        assert events.passengers() == 3 && events.weight() == 240;
+                    }
+                    if (events.type() == BinaryTraceWriter.PASSENGER_ENTER_RECORD) {
+                        passengersEntered++;
+                    }
+                }
+            }
+            assert passengersEntered == 4;
+
+            MultiElevatorController replay = new MultiElevatorController(BuildingConfig.DEFAULT);
+            MultiElevatorController replayWithEta = new MultiElevatorController(BuildingConfig.DEFAULT);
+            replayWithEta.setDispatchStrategy(new EtaDispatchStrategy());
+            replay.initializeVariables(1);
+            replayWithEta.initializeVariables(1);
+            replayWithEta.elevators.get(1).setCurrentFloor(10);
+            try (BinaryTraceReader requests = BinaryTraceReader.open(recorded);
+                    BinaryTraceWriter events = BinaryTraceWriter.map(replayed)) {
+                replay.setEventListener(events);
+                replay.runSimulation(requests, BuildingConfig.DEFAULT.simTime());
+            }
+            try (BinaryTraceReader requests = BinaryTraceReader.open(recorded);
+                    BinaryTraceWriter events = BinaryTraceWriter.map(withEta)) {
+                replayWithEta.setEventListener(events);
+                replayWithEta.runSimulation(requests, BuildingConfig.DEFAULT.simTime());
+            }
+            assert BinaryTraceReader.mismatch(recorded, replayed) == -1;
+            assert BinaryTraceReader.mismatch(recorded, withEta) > 0;
+
+            for (java.nio.file.Path file : Arrays.asList(textTrace, requestTrace, recorded, replayed, withEta)) {
+                java.nio.file.Files.delete(file);
+            }
+            java.nio.file.Files.delete(directory);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        System.out.println("END TEST CASE 13--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Cars that take two passengers. A single car picks up a pair, bypasses the hall call it
+     * no longer has room for, and comes back for it once the pair is out. With two cars the
+     * call a full car leaves behind is handed to the other car instead. A request too big
+     * for any car is rejected.
+     *
+     * Cars that take four, Elevator 0 on floor 1 and Elevator 1 on floor 10. Three users on
+     * floor 1 go up to 10 and a user on floor 10 goes down to 1 at time 0, a user on floor 5
+     * goes up to 8 at time 2 and two more on floor 5 go up to 9 at time 3. Elevator 0 already
+     * stops on floor 5 going up, but with three on board the pair doesn't fit, so under
+     * either strategy the pair is scored like any other call and nothing is handed back.
+     */
+    public static void testCase14() {
+        System.out.println("START TEST CASE 14:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withCarCapacity(2).withNumElevators(1);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(3, Direction.UP, 10, 0, 2)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(5, Direction.UP, 8, 1)));
+        controller.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert controller.elevators.get(0).getFloorsVisited().equals(Arrays.asList(3, 10, 5, 8));
+        SimulationMetrics metrics = controller.getMetrics();
+        assert metrics.passengersPickedUp() == 3 && metrics.pendingRequests() == 0;
+        assert metrics.requestsReturned() == 1;
+        assert metrics.waitTime().count() == 3;
+
+        config = BuildingConfig.DEFAULT.withCarCapacity(2);
+        controller = new MultiElevatorController(config);
+        controller.setEventListener(new TextEventLogger(System.out));
+        controller.initializeVariables(1);
+        controller.elevators.get(1).setCurrentFloor(10);
+        mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(3, Direction.UP, 10, 0, 2)));
+        mapOfTimesToRequest.put(1, Arrays.asList(
+                new Request(3, Direction.UP, 8, 1)));
+        controller.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert controller.elevators.get(0).getFloorsVisited().equals(Arrays.asList(3, 10));
+        assert controller.elevators.get(1).getFloorsVisited().equals(Arrays.asList(3, 8));
+        assert controller.getMetrics().requestsReturned() == 1;
+
+        boolean rejected = false;
+        try {
+            controller.handleFloorButtonPress(new Request(2, Direction.UP, 4, 30, 1, config.ratedLoad() + 1));
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assert rejected;
+
+        config = BuildingConfig.DEFAULT.withCarCapacity(4);
+        mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0, 3),
+                new Request(10, Direction.DOWN, 1, 0)));
+        mapOfTimesToRequest.put(2, Arrays.asList(
+                new Request(5, Direction.UP, 8, 2)));
+        mapOfTimesToRequest.put(3, Arrays.asList(
+                new Request(5, Direction.UP, 9, 3, 2)));
+        for (DispatchStrategy strategy : Arrays.asList(new LeastRequestsDispatchStrategy(), new EtaDispatchStrategy())) {
+            controller = new MultiElevatorController(config);
+            controller.setDispatchStrategy(strategy);
+            controller.setEventListener(new TextEventLogger(System.out));
+            controller.initializeVariables(1);
+            controller.elevators.get(1).setCurrentFloor(10);
+            controller.runSimulation(mapOfTimesToRequest, config.simTime());
+            metrics = controller.getMetrics();
+            assert metrics.requestsReturned() == 0;
+            assert metrics.passengersPickedUp() == 7 && metrics.pendingRequests() == 0;
+        }
+        System.out.println("END TEST CASE 14--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 15: A 10 story building with office car kinematics, 2 s door opening, 3 s door
+     * closing and a single car starting on floor 1.
+     * Time 0: User on Floor 1 presses Up to go to 10, with nobody else on board.
+     * Time 0: In a second run, three users on Floor 1 press Up to go to 4, 7 and 10.
+     * Expected: The express car runs 1 -> 10 in one move, and the passenger rides 22.0 s:
+     * doors closing, getting in, the run and the doors opening. The local car stops on the
+     * way, and the passenger for floor 10 rides 43.2 s. Long runs cost their floors at rated
+     * speed plus one stop penalty, short runs cost more per floor.
+     */
+    public static void testCase15() {
+        System.out.println("START TEST CASE 15:--------------------------------------------------------------------------------------------------");
+        Kinematics kinematics = Kinematics.OFFICE;
+        BuildingConfig config = BuildingConfig.DEFAULT.withNumElevators(1).withTimings(1, 20, 30)
+                .withSimTime(3000).withKinematics(kinematics);
+        assert Math.abs(kinematics.runTime(9) - (9 * kinematics.floorTimeAtSpeed() + kinematics.stopPenalty())) < 1e-9;
+        assert kinematics.runTime(1) > kinematics.runTime(9) / 9;
+        assert kinematics.ticks(kinematics.runTime(9)) == 158;
+
+        MultiElevatorController express = new MultiElevatorController(config);
+        express.setEventListener(new TextEventLogger(System.out));
+        express.initializeVariables(1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 10, 0)));
+        express.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert express.elevators.get(0).getFloorsVisited().equals(Arrays.asList(1, 10));
+        assert express.getMetrics().floorsTravelled() == 9;
+        assert express.getMetrics().rideTime().max() == 220;
+
+        MultiElevatorController local = new MultiElevatorController(config);
+        local.setEventListener(new TextEventLogger(System.out));
+        local.initializeVariables(1);
+        mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 4, 0),
+                new Request(1, Direction.UP, 7, 0),
+                new Request(1, Direction.UP, 10, 0)));
+        local.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert local.elevators.get(0).getFloorsVisited().equals(Arrays.asList(1, 4, 7, 10));
+        assert local.getMetrics().stopsMade() == 4;
+        assert local.getMetrics().rideTime().max() == 432;
+
+        HandlingCapacity twoCars = HandlingCapacity.upPeak(config.withNumElevators(2));
+        HandlingCapacity fourCars = HandlingCapacity.upPeak(config.withNumElevators(4));
+        assert twoCars.roundTripTime() == fourCars.roundTripTime();
+        assert Math.abs(fourCars.fiveMinuteCapacity() - 2 * twoCars.fiveMinuteCapacity()) < 1e-9;
+        assert Math.abs(twoCars.percentOfPopulation(200) - twoCars.fiveMinuteCapacity() / 2) < 1e-9;
+        System.out.println("END TEST CASE 15--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 16: Up-peak in the default building with one time unit door opening and
+     * closing, both elevators starting on floor 1.
+     * Time 0: Four users on Floor 1 press Up to go to 5, 9, 5 and 9.
+     * With up/down collective dispatch, Elevator 0 takes everyone: 1 -> 5 -> 9.
+     * With destination dispatch the calls are grouped by destination.
+     * Expected: Elevator 0: 1 -> 5, Elevator 1: 1 -> 9, and nobody's journey takes as long
+     * as the longest one under collective dispatch.
+     */
+    public static void testCase16() {
+        System.out.println("START TEST CASE 16:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withTimings(1, 1, 1);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(
+                new Request(1, Direction.UP, 5, 0),
+                new Request(1, Direction.UP, 9, 0),
+                new Request(1, Direction.UP, 5, 0),
+                new Request(1, Direction.UP, 9, 0)));
+
+        MultiElevatorController collective = new MultiElevatorController(config);
+        collective.setEventListener(new TextEventLogger(System.out));
+        collective.initializeVariables(1);
+        collective.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert collective.elevators.get(0).getFloorsVisited().equals(Arrays.asList(1, 5, 9));
+        assert collective.elevators.get(1).getFloorsVisited().isEmpty();
+
+        MultiElevatorController destination = new MultiElevatorController(config);
+        destination.setEventListener(new TextEventLogger(System.out));
+        destination.setDispatchStrategy(new DestinationDispatchStrategy());
+        destination.initializeVariables(1);
+        destination.runSimulation(mapOfTimesToRequest, config.simTime());
+        assert destination.elevators.get(0).getFloorsVisited().equals(Arrays.asList(1, 5));
+        assert destination.elevators.get(1).getFloorsVisited().equals(Arrays.asList(1, 9));
+        SimulationMetrics metrics = destination.getMetrics();
+        assert metrics.passengersPickedUp() == 4 && metrics.pendingRequests() == 0;
+        assert metrics.journeyTime().max() < collective.getMetrics().journeyTime().max();
+        System.out.println("END TEST CASE 16--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 17: An hour of random traffic, 1000 calls, in a 30 story building with 4 cars
+     * that take 4 passengers each, so calls often wait and full cars hand calls back.
+     * Expected: offering waiting calls only to the cars that changed gives every car the same
+     * itinerary as offering every call to every car on every dispatch, for both the least
+     * requests and the ETA strategy.
+     */
+    public static void testCase17() {
+        System.out.println("START TEST CASE 17:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(30, 1).withNumElevators(4).withCarCapacity(4)
+                .withTimings(1, 1, 1).withSimTime(3600);
+        Random random = new Random(17);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            int time = random.nextInt(config.simTime() - 600);
+            int floor = 1 + random.nextInt(config.numFloors());
+            int destination = 1 + random.nextInt(config.numFloors() - 1);
+            if (destination >= floor) {
+                destination++;
+            }
+            Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+            mapOfTimesToRequest.computeIfAbsent(time, t -> new ArrayList<>())
+                    .add(new Request(floor, direction, destination, time, 1 + random.nextInt(2)));
+        }
+        for (int i = 0; i < 2; i++) {
+            DispatchStrategy strategy = i == 0 ? new LeastRequestsDispatchStrategy() : new EtaDispatchStrategy();
+            MultiElevatorController incremental = new MultiElevatorController(config);
+            incremental.setDispatchStrategy(strategy);
+            incremental.runSimulation(mapOfTimesToRequest, config.simTime());
+
+            DispatchStrategy fullScan = i == 0 ? new LeastRequestsDispatchStrategy() : new EtaDispatchStrategy();
+            MultiElevatorController everyCar = new MultiElevatorController(config);
+            everyCar.setDispatchStrategy((controller, request, candidates) ->
+                    fullScan.selectElevator(controller, request, controller.getElevators()));
+            everyCar.runSimulation(mapOfTimesToRequest, config.simTime());
+
+            for (int j = 0; j < config.numElevators(); j++) {
+                assert incremental.elevators.get(j).getFloorsVisited().equals(everyCar.elevators.get(j).getFloorsVisited());
+            }
+            SimulationMetrics metrics = incremental.getMetrics();
+            assert metrics.equals(everyCar.getMetrics());
+            assert metrics.requestsSubmitted() == 1000 && metrics.pendingRequests() == 0;
+            assert metrics.requestsReturned() > 0;
+        }
+        System.out.println("END TEST CASE 17--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 18: Live intake. Four threads each offer 10000 numbered items to a small ring
+     * buffer while it is drained, retrying whenever it is full. Then 8 threads press 250
+     * random hall and car buttons each on a live controller in a 50 story building.
+     * Expected: every item comes out exactly once and in the order its thread offered it.
+     * Every press is either taken in or refused, and everyone taken in is picked up.
+     */
+    public static void testCase18() {
+        System.out.println("START TEST CASE 18:--------------------------------------------------------------------------------------------------");
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        assert buffer.offer(1) && buffer.offer(2) && buffer.offer(3) && buffer.offer(4);
+        assert !buffer.offer(5);
+        List<Integer> drained = new ArrayList<>();
+        assert buffer.drain(drained::add, 3) == 3 && drained.equals(Arrays.asList(1, 2, 3));
+        assert buffer.offer(5) && buffer.size() == 2;
+
+        int producers = 4;
+        int itemsPerProducer = 10000;
+        MpscRingBuffer<Integer> shared = new MpscRingBuffer<>(64);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < itemsPerProducer; i++) {
+                    while (!shared.offer(producer * itemsPerProducer + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int[] nextItem = new int[producers];
+        int[] received = new int[1];
+        boolean[] inOrder = { true };
+        while (received[0] < producers * itemsPerProducer) {
+            shared.drain(item -> {
+                int producer = item / itemsPerProducer;
+                inOrder[0] &= item % itemsPerProducer == nextItem[producer]++;
+                received[0]++;
+            }, Integer.MAX_VALUE);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        assert inOrder[0];
+        assert shared.size() == 0;
+
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(50, 1).withNumElevators(8);
+        LiveLoadGenerator.Result result = LiveLoadGenerator.run(config, 8, 250, 1 << 8, 18);
+        System.out.println(result);
+        assert result.callsAccepted() + result.callsRefused() == result.callsMade();
+        SimulationMetrics metrics = result.metrics();
+        assert metrics.requestsSubmitted() > 0 && metrics.requestsSubmitted() <= result.callsAccepted();
+        assert metrics.passengersPickedUp() == metrics.requestsSubmitted() && metrics.pendingRequests() == 0;
+        System.out.println("END TEST CASE 18--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 19: Cars running as actors. 16 cars in a 40 story building serve 1500
+     * random hall calls with the cars inline, as actors whose messages arrive at once, and
+     * twice as actors whose messages take 3 time units to arrive. Then a run switches from
+     * actors back to inline cars halfway through.
+     * Then 2 cars whose messages take 3 time units: three users on floor 5 press Up at time
+     * 0, and at time 1 another on floor 5 and one on floor 6 press Up.
+     * Expected: without a delay, the actors make the same trips as inline cars. With the
+     * delay everyone is still served, passengers wait longer and both runs come out the
+     * same however the cars' threads were scheduled. The run that switches serves everyone.
+     * Calls still on their way count for their car at once: Elevator 0 owns floor 5 going
+     * up and has four requests before any has reached it, so floor 6 goes to Elevator 1.
+     */
+    public static void testCase19() {
+        System.out.println("START TEST CASE 19:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(40, 1).withNumElevators(16).withTimings(1, 1, 1)
+                .withSimTime(1800);
+        Random random = new Random(19);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        for (int i = 0; i < 1500; i++) {
+            int time = random.nextInt(config.simTime() - 300);
+            int floor = 1 + random.nextInt(config.numFloors());
+            int destination = 1 + random.nextInt(config.numFloors() - 1);
+            if (destination >= floor) {
+                destination++;
+            }
+            Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+            mapOfTimesToRequest.computeIfAbsent(time, t -> new ArrayList<>())
+                    .add(new Request(floor, direction, destination, time));
+        }
+
+        MultiElevatorController inline = new MultiElevatorController(config);
+        inline.runSimulation(mapOfTimesToRequest, config.simTime());
+        MultiElevatorController actors = new MultiElevatorController(config);
+        actors.useCarActors(0);
+        actors.runSimulation(mapOfTimesToRequest, config.simTime());
+        for (int j = 0; j < config.numElevators(); j++) {
+            assert actors.elevators.get(j).getFloorsVisited().equals(inline.elevators.get(j).getFloorsVisited());
+        }
+        SimulationMetrics inlineMetrics = inline.getMetrics();
+        assert actors.getMetrics().equals(inlineMetrics);
+        assert inlineMetrics.pendingRequests() == 0;
+
+        SimulationMetrics delayedMetrics = null;
+        for (int i = 0; i < 2; i++) {
+            MultiElevatorController delayed = new MultiElevatorController(config);
+            delayed.useCarActors(3);
+            delayed.runSimulation(mapOfTimesToRequest, config.simTime());
+            SimulationMetrics metrics = delayed.getMetrics();
+            assert metrics.requestsSubmitted() == 1500 && metrics.pendingRequests() == 0;
+            assert metrics.waitTime().mean() > inlineMetrics.waitTime().mean();
+            assert delayedMetrics == null || metrics.equals(delayedMetrics);
+            delayedMetrics = metrics;
+        }
+
+        MultiElevatorController switched = new MultiElevatorController(config);
+        RequestSource requests = RequestSource.of(mapOfTimesToRequest);
+        switched.useCarActors(3);
+        switched.runSimulation(requests, config.simTime() / 2);
+        switched.useInlineCars();
+        switched.runSimulation(requests, config.simTime() / 2);
+        SimulationMetrics metrics = switched.getMetrics();
+        assert metrics.requestsSubmitted() == 1500 && metrics.pendingRequests() == 0;
+        assert metrics.passengersPickedUp() == 1500;
+
+        config = BuildingConfig.DEFAULT.withNumElevators(2).withTimings(1, 1, 1);
+        mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(new Request(5, Direction.UP, 9, 0),
+                new Request(5, Direction.UP, 9, 0), new Request(5, Direction.UP, 8, 0)));
+        mapOfTimesToRequest.put(1, Arrays.asList(new Request(5, Direction.UP, 10, 1),
+                new Request(6, Direction.UP, 9, 1)));
+        MultiElevatorController delayed = new MultiElevatorController(config);
+        delayed.useCarActors(3);
+        requests = RequestSource.of(mapOfTimesToRequest);
+        delayed.runSimulation(requests, 2);
+        assert delayed.getHallCallOwner(5, Direction.UP) == delayed.elevators.get(0);
+        assert delayed.getHallCallOwner(6, Direction.UP) == delayed.elevators.get(1);
+        assert delayed.elevators.get(0).numOfTotalRequests() == 4;
+        assert delayed.elevators.get(1).numOfTotalRequests() == 1;
+        delayed.runSimulation(requests, config.simTime());
+        metrics = delayed.getMetrics();
+        assert metrics.passengersPickedUp() == 5 && metrics.pendingRequests() == 0;
+        assert !delayed.elevators.get(1).getFloorsVisited().contains(5);
+        System.out.println("END TEST CASE 19--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 20: A 60 story tower with a low rise bank for floors 1 to 20, an express
+     * shuttle between the lobby and the sky lobby on 40, and a high rise bank for floors
+     * 40 to 60. Walking between banks takes 5 time units.
+     * Time 0: users go from 1 to 10, from 1 to 50, from 55 to 5 and from 15 to 45.
+     * Then 600 random trips, run on one worker and on the common pool, and the random
+     * trips in a building whose only bank serves every floor.
+     * Expected: the first user rides the low rise alone, the second changes to the high
+     * rise at the sky lobby, the other two change twice. Everyone arrives, the worker
+     * count changes nothing, and a single bank does exactly what a plain controller does.
+     */
+    public static void testCase20() {
+        System.out.println("START TEST CASE 20:--------------------------------------------------------------------------------------------------");
+        BuildingConfig cars = BuildingConfig.DEFAULT.withNumElevators(3).withTimings(1, 1, 1);
+        List<ElevatorBank> banks = List.of(
+                ElevatorBank.serving("low rise", cars.withFloors(20, 1)),
+                new ElevatorBank("shuttle", cars.withFloors(40, 1).withNumElevators(2), List.of(1, 40)),
+                ElevatorBank.serving("high rise", cars.withFloors(21, 40)));
+
+        ZonedBuilding tower = new ZonedBuilding(banks, 5);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        mapOfTimesToRequest.put(0, Arrays.asList(new Request(1, Direction.UP, 10, 0),
+                new Request(1, Direction.UP, 50, 0), new Request(55, Direction.DOWN, 5, 0),
+                new Request(15, Direction.UP, 45, 0)));
+        tower.runSimulation(mapOfTimesToRequest, 300);
+        ZonedBuilding.Metrics metrics = tower.getMetrics();
+        System.out.println(metrics);
+        assert metrics.tripsStarted() == 4 && metrics.tripsCompleted() == 4 && metrics.transfers() == 5;
+        for (SimulationMetrics bank : metrics.banks()) {
+            assert bank.requestsSubmitted() == 3 && bank.pendingRequests() == 0;
+        }
+        // 39 floors on the shuttle and a walk at least, for everyone but the first user
+        assert metrics.journeyTime().p50() > 39 + 5;
+
+        Random random = new Random(20);
+        mapOfTimesToRequest = new HashMap<>();
+        for (int i = 0; i < 600; i++) {
+            int time = random.nextInt(1500);
+            int floor = random.nextBoolean() ? 1 + random.nextInt(20) : 40 + random.nextInt(21);
+            int destination = random.nextBoolean() ? 1 + random.nextInt(20) : 40 + random.nextInt(21);
+            if (destination == floor) {
+                continue;
+            }
+            Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+            mapOfTimesToRequest.computeIfAbsent(time, t -> new ArrayList<>())
+                    .add(new Request(floor, direction, destination, time));
+        }
+        ZonedBuilding parallel = new ZonedBuilding(banks, 5);
+        parallel.runSimulation(mapOfTimesToRequest, 3000);
+        ForkJoinPool oneWorker = new ForkJoinPool(1);
+        ZonedBuilding serial = new ZonedBuilding(banks, 5, oneWorker);
+        serial.runSimulation(mapOfTimesToRequest, 3000);
+        oneWorker.shutdown();
+        metrics = parallel.getMetrics();
+        System.out.println(metrics.journeyTime());
+        assert metrics.equals(serial.getMetrics());
+        assert metrics.tripsStarted() > 500 && metrics.tripsCompleted() == metrics.tripsStarted();
+        assert metrics.transfers() > 0;
+
+        BuildingConfig config = cars.withFloors(60, 1);
+        ZonedBuilding oneBank = new ZonedBuilding(List.of(ElevatorBank.serving("all", config)), 7);
+        oneBank.runSimulation(mapOfTimesToRequest, 3000);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.runSimulation(mapOfTimesToRequest, 3000);
+        assert oneBank.getMetrics().banks().get(0).equals(controller.getMetrics());
+        assert oneBank.getMetrics().transfers() == 0;
+        System.out.println("END TEST CASE 20--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 21: Synthetic traffic. An up-peak at one passenger every 2 time units for
+     * 100000 time units in a 30 story building, a matrix that only has trips from floor 3
+     * to floor 7, and an office day at a peak of one passenger every 5 time units run
+     * against 4 cars in a 20 story building.
+     * Expected: the same seed gives the same calls. The up-peak makes about 50000 calls in
+     * time order, about 85% of them from the lobby and 10% to it. The matrix only makes
+     * trips from 3 to 7. The office day makes about 4.375 peak hours worth of calls, give or
+     * take 10%, and everyone is served by the end of the day.
+     */
+    public static void testCase21() {
+        System.out.println("START TEST CASE 21:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(30, 1);
+        List<TrafficGenerator.Period> upPeak = List.of(new TrafficGenerator.Period(0, 100000, 0.5,
+                OriginDestinationMatrix.forPattern(config, TrafficPattern.UP_PEAK)));
+        TrafficGenerator traffic = new TrafficGenerator(upPeak, 21);
+        TrafficGenerator sameSeed = new TrafficGenerator(upPeak, 21);
+        int calls = 0;
+        int fromLobby = 0;
+        int toLobby = 0;
+        int lastTime = 0;
+        Request request;
+        while ((request = traffic.poll()) != null) {
+            Request same = sameSeed.poll();
+            assert same.floor == request.floor && same.destination == request.destination && same.time == request.time;
+            assert request.time >= lastTime && request.time < 100000;
+            assert request.floor != request.destination && request.floor >= 1 && request.destination <= 30;
+            assert request.direction == (request.destination > request.floor ? Direction.UP : Direction.DOWN);
+            lastTime = request.time;
+            calls++;
+            fromLobby += request.floor == 1 ? 1 : 0;
+            toLobby += request.destination == 1 ? 1 : 0;
+        }
+        assert sameSeed.poll() == null;
+        System.out.println(calls + " calls, " + fromLobby + " from the lobby, " + toLobby + " to it");
+        assert Math.abs(calls - 50000) < 1500;
+        assert Math.abs((double) fromLobby / calls - 0.85) < 0.01 && Math.abs((double) toLobby / calls - 0.10) < 0.01;
+
+        double[][] weights = new double[30][30];
+        weights[2][6] = 1;
+        TrafficGenerator oneTrip = new TrafficGenerator(List.of(new TrafficGenerator.Period(0, 1000, 1,
+                new OriginDestinationMatrix(1, weights))), 21);
+        while ((request = oneTrip.poll()) != null) {
+            assert request.floor == 3 && request.destination == 7 && request.direction == Direction.UP;
+        }
+
+        config = BuildingConfig.DEFAULT.withFloors(20, 1).withNumElevators(4).withTimings(1, 2, 2);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.runSimulation(TrafficGenerator.officeDays(config, 0.2, 1, 21), 11 * 3600 + 3600);
+        SimulationMetrics metrics = controller.getMetrics();
+        System.out.println(metrics);
+        double expectedCalls = 4.375 * 3600 * 0.2;
+        assert Math.abs(metrics.requestsSubmitted() - expectedCalls) < 0.1 * expectedCalls;
+        assert metrics.pendingRequests() == 0 && metrics.passengersPickedUp() == metrics.requestsSubmitted();
+        System.out.println("END TEST CASE 21--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 22: Snapshots and forks. 4 cars of capacity 4 in a 20 story building under
+     * ETA dispatch, with 700 random calls of 1 to 3 passengers each over 1800 time units,
+     * so at time 600 there are riders on board, calls waiting and calls being handed back.
+     * At time 600 the controller is forked and a snapshot taken. The controller and the
+     * fork then both run to 1800, the snapshot is restored into the controller and into a
+     * new controller that each run to 1800 again, and the fork runs on for 1000 more.
+     * Expected: every run from time 600 comes out exactly like a run that never stopped
+     * at 600, and running the fork on changes nothing in the controller's metrics or its
+     * cars.
+     */
+    public static void testCase22() {
+        System.out.println("START TEST CASE 22:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(20, 1).withNumElevators(4).withCarCapacity(4)
+                .withTimings(1, 1, 1);
+        Random random = new Random(22);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        for (int i = 0; i < 700; i++) {
+            int time = random.nextInt(1800);
+            int floor = 1 + random.nextInt(20);
+            int destination = 1 + random.nextInt(20);
+            if (destination == floor) {
+                continue;
+            }
+            Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+            mapOfTimesToRequest.computeIfAbsent(time, t -> new ArrayList<>())
+                    .add(new Request(floor, direction, destination, time, 1 + random.nextInt(3)));
+        }
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setDispatchStrategy(new EtaDispatchStrategy());
+        controller.runSimulation(mapOfTimesToRequest, 600);
+        MultiElevatorController fork = controller.fork();
+        Snapshot snapshot = controller.snapshot();
+        assert snapshot.getTime() == 600 && fork.getCurrentTime() == 600;
+        assert fork.getMetrics().equals(controller.getMetrics());
+
+        controller.runSimulation(mapOfTimesToRequest, 1200);
+        SimulationMetrics metrics = controller.getMetrics();
+        System.out.println(metrics);
+        assert metrics.requestsReturned() > 0;
+        fork.runSimulation(mapOfTimesToRequest, 1200);
+        assert fork.getMetrics().equals(metrics);
+        MultiElevatorController uninterrupted = new MultiElevatorController(config);
+        uninterrupted.setDispatchStrategy(new EtaDispatchStrategy());
+        uninterrupted.runSimulation(mapOfTimesToRequest, 1800);
+        assert uninterrupted.getMetrics().equals(metrics);
+        MultiElevatorController restored = new MultiElevatorController(config);
+        restored.setDispatchStrategy(new EtaDispatchStrategy());
+        restored.restore(snapshot);
+        restored.runSimulation(mapOfTimesToRequest, 1200);
+        assert restored.getMetrics().equals(metrics);
+        controller.restore(snapshot);
+        assert controller.getCurrentTime() == 600;
+        controller.runSimulation(mapOfTimesToRequest, 1200);
+        assert controller.getMetrics().equals(metrics);
+        for (int j = 0; j < config.numElevators(); j++) {
+            ArrayList<Integer> floorsVisited = controller.elevators.get(j).getFloorsVisited();
+            assert fork.elevators.get(j).getFloorsVisited().equals(floorsVisited);
+            assert restored.elevators.get(j).getFloorsVisited().equals(floorsVisited);
+        }
+
+        List<Integer> floorsVisited = new ArrayList<>(controller.elevators.get(0).getFloorsVisited());
+        LatencySummary waitTimes = controller.getLatencyMetrics().getWaitTimesForElevator(0).summarize();
+        Map<Integer, List<Request>> moreRequests = new HashMap<>();
+        for (int time = 1800; time < 2800; time += 5) {
+            moreRequests.put(time, List.of(new Request(1, Direction.UP, 20, time), new Request(20, Direction.DOWN, 1, time)));
+        }
+        fork.runSimulation(moreRequests, 1000);
+        assert fork.getMetrics().requestsSubmitted() == metrics.requestsSubmitted() + 400;
+        assert controller.getMetrics().equals(metrics);
+        assert controller.getLatencyMetrics().getWaitTimesForElevator(0).summarize().equals(waitTimes);
+        assert controller.elevators.get(0).getFloorsVisited().equals(floorsVisited);
+        assert !fork.elevators.get(0).getFloorsVisited().equals(floorsVisited);
+        System.out.println("END TEST CASE 22--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 23: Rollout dispatch. 4 cars in a 20 story building with lunch time
+     * traffic at one passenger every 4 time units for 3000 time units, dispatched by ETA,
+     * by rollouts of 8 draws over 60 time units with a budget of a second per decision,
+     * twice, and by rollouts with no budget at all.
+     * Expected: the two runs with a budget make the same decisions, roll out most of them
+     * and never fall back, and wait less on average than ETA. Without a budget every
+     * decision falls back to ETA, so the run comes out exactly like the ETA run.
+     */
+    public static void testCase23() {
+        System.out.println("START TEST CASE 23:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(20, 1).withNumElevators(4).withTimings(1, 1, 1);
+        OriginDestinationMatrix trips = OriginDestinationMatrix.forPattern(config, TrafficPattern.LUNCH);
+        List<TrafficGenerator.Period> lunch = List.of(new TrafficGenerator.Period(0, 3000, 0.25, trips));
+
+        MultiElevatorController eta = new MultiElevatorController(config);
+        eta.setDispatchStrategy(new EtaDispatchStrategy());
+        eta.runSimulation(new TrafficGenerator(lunch, 23), 3300);
+        SimulationMetrics etaMetrics = eta.getMetrics();
+        System.out.println("ETA: " + etaMetrics.waitTime());
+
+        SimulationMetrics rolloutMetrics = null;
+        for (int i = 0; i < 2; i++) {
+            RolloutDispatchStrategy rollouts = new RolloutDispatchStrategy(trips, 0.25, 60, 8, 1_000_000_000L, 23);
+            MultiElevatorController controller = new MultiElevatorController(config);
+            controller.setDispatchStrategy(rollouts);
+            controller.runSimulation(new TrafficGenerator(lunch, 23), 3300);
+            SimulationMetrics metrics = controller.getMetrics();
+            System.out.println("Rollouts: " + metrics.waitTime() + ", " + rollouts.getDecisions() + " rolled out");
+            assert metrics.pendingRequests() == 0 && metrics.requestsSubmitted() == etaMetrics.requestsSubmitted();
+            assert rollouts.getDecisions() > metrics.requestsSubmitted() / 2 && rollouts.getFallbacks() == 0;
+            assert metrics.waitTime().mean() < etaMetrics.waitTime().mean();
+            assert rolloutMetrics == null || metrics.equals(rolloutMetrics);
+            rolloutMetrics = metrics;
+        }
+
+        RolloutDispatchStrategy noBudget = new RolloutDispatchStrategy(trips, 0.25, 60, 8, 0, 23);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setDispatchStrategy(noBudget);
+        controller.runSimulation(new TrafficGenerator(lunch, 23), 3300);
+        assert noBudget.getDecisions() > 0 && noBudget.getFallbacks() == noBudget.getDecisions();
+        assert controller.getMetrics().equals(etaMetrics);
+        System.out.println("END TEST CASE 23--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 24: Dispatch over the fleet's arrays. 100 cars of 4 passengers in a 50
+     * story building, with 6 random calls of 1 to 3 passengers every time unit, run for 300
+     * time units so cars are moving both ways, full and idle. Then 2000 random calls are
+     * offered to the least requests rule, once with the whole fleet, which scans the
+     * arrays, and once with a copy of the list of cars, which goes through the cars.
+     * Expected: both pick the same car, or both no car, for every call, and some calls go
+     * to idle cars and some to moving ones.
+     */
+    public static void testCase24() {
+        System.out.println("START TEST CASE 24:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(50, 1).withNumElevators(100).withCarCapacity(4)
+                .withTimings(1, 1, 1);
+        Random random = new Random(24);
+        Map<Integer, List<Request>> mapOfTimesToRequest = new HashMap<>();
+        for (int time = 0; time < 300; time++) {
+            List<Request> requests = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                int floor = 1 + random.nextInt(50);
+                int destination = 1 + random.nextInt(50);
+                if (destination != floor) {
+                    Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+                    requests.add(new Request(floor, direction, destination, time, 1 + random.nextInt(3)));
+                }
+            }
+            mapOfTimesToRequest.put(time, requests);
+        }
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.runSimulation(mapOfTimesToRequest, 300);
+
+        LeastRequestsDispatchStrategy strategy = new LeastRequestsDispatchStrategy();
+        List<Elevator> cars = new ArrayList<>(controller.getElevators());
+        int toIdle = 0;
+        int toMoving = 0;
+        for (int i = 0; i < 2000; i++) {
+            int floor = 1 + random.nextInt(50);
+            int destination = 1 + random.nextInt(50);
+            if (destination == floor) {
+                continue;
+            }
+            Direction direction = destination > floor ? Direction.UP : Direction.DOWN;
+            Request request = new Request(floor, direction, destination, 300, 1 + random.nextInt(4));
+            Elevator fromFleet = strategy.selectElevator(controller, request, controller.getElevators());
+            assert fromFleet == strategy.selectElevator(controller, request, cars);
+            if (fromFleet != null && fromFleet.getDirection() == Direction.IDLE) {
+                toIdle++;
+            } else if (fromFleet != null) {
+                toMoving++;
+            }
+        }
+        System.out.println(toIdle + " calls to idle cars, " + toMoving + " to moving cars");
+        assert toIdle > 0 && toMoving > 0;
+        System.out.println("END TEST CASE 24--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 25: Dispatch scored in SIMD lanes. Fleets of 0 to 199 cars, so the last
+     * full vector is followed by every possible number of cars left over, are filled with
+     * random floors, directions, loads and request counts from small ranges so there are
+     * many ties, and 50 random calls, going up, down or neither, are scored on each.
+     * Expected: leastRequests, which uses the Vector API when the JVM has the module, picks
+     * the same car as scoring one car at a time for every call.
+     */
+    public static void testCase25() {
+        System.out.println("START TEST CASE 25:--------------------------------------------------------------------------------------------------");
+        System.out.println("Vector API " + (CarFleet.isVectorized() ? "in use" : "not in use"));
+        Random random = new Random(25);
+        Direction[] directions = Direction.values();
+        int assigned = 0;
+        for (int size = 0; size < 200; size++) {
+            CarFleet fleet = new CarFleet(size);
+            for (int car = 0; car < size; car++) {
+                fleet.floor[car] = 1 + random.nextInt(10);
+                fleet.direction[car] = random.nextInt(directions.length);
+                fleet.passengersOnBoard[car] = random.nextInt(5);
+                fleet.loadOnBoard[car] = fleet.passengersOnBoard[car] * Request.PASSENGER_WEIGHT;
+                fleet.requests[car] = random.nextInt(4);
+            }
+            for (int i = 0; i < 50; i++) {
+                int floor = 1 + random.nextInt(10);
+                Direction direction = directions[random.nextInt(directions.length)];
+                int passengers = 1 + random.nextInt(3);
+                int weight = passengers * Request.PASSENGER_WEIGHT;
+                int car = fleet.leastRequests(floor, direction, passengers, weight, 4, 630);
+                assert car == fleet.scalarLeastRequests(floor, direction, passengers, weight, 4, 630);
+                if (car >= 0) {
+                    assigned++;
+                }
+            }
+        }
+        System.out.println(assigned + " of 10000 calls assigned");
+        assert assigned > 0 && assigned < 10000;
+        System.out.println("END TEST CASE 25--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 26: Hot path counters and flight recorder events. 4 cars in a 20 story
+     * building with lunch time traffic for 2000 time units, run once without a recording
+     * and once under a flight recording of the controller's events.
+     * Expected: both runs count the same work, only the recorded run has tick times and
+     * creates events, and the recording holds one event for every tick, dispatch pass,
+     * dispatch decision and direction change counted, with the same totals of calls assigned.
+     */
+    public static void testCase26() {
+        System.out.println("START TEST CASE 26:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(20, 1).withNumElevators(4).withTimings(1, 1, 1);
+        OriginDestinationMatrix trips = OriginDestinationMatrix.forPattern(config, TrafficPattern.LUNCH);
+        List<TrafficGenerator.Period> lunch = List.of(new TrafficGenerator.Period(0, 2000, 0.25, trips));
+
+        MultiElevatorController unrecorded = new MultiElevatorController(config);
+        assert !ControllerEvents.isRecording();
+        unrecorded.runSimulation(new TrafficGenerator(lunch, 26), 2200);
+        ControllerCounters counters = unrecorded.getCounters();
+        System.out.println(counters);
+        assert counters.ticks() > 0 && counters.tickNanos() == 0 && counters.maxTickNanos() == 0;
+        assert counters.dispatchNanos() == 0 && counters.maxDispatchNanos() == 0;
+        assert counters.dispatchDecisions() >= counters.callsAssigned() && counters.dispatchPasses() > 0;
+        assert counters.callsAssigned() >= unrecorded.getMetrics().requestsSubmitted();
+        assert counters.callsWaiting() == 0 && counters.peakCallsWaiting() > 0 && counters.directionChanges() > 0;
+
+        MultiElevatorController recorded = new MultiElevatorController(config);
+        List<jdk.jfr.consumer.RecordedEvent> events;
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            for (String name : List.of("elevatorsim.Tick", "elevatorsim.DispatchPass", "elevatorsim.DispatchDecision",
+                    "elevatorsim.DirectionChange")) {
+                recording.enable(name);
+            }
+            recording.start();
+            assert ControllerEvents.isRecording();
+            recorded.runSimulation(new TrafficGenerator(lunch, 26), 2200);
+            recording.stop();
+            assert !ControllerEvents.isRecording();
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("controller", ".jfr");
+            recording.dump(file);
+            events = jdk.jfr.consumer.RecordingFile.readAllEvents(file);
+            java.nio.file.Files.delete(file);
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+        ControllerCounters recordedCounters = recorded.getCounters();
+        assert recordedCounters.tickNanos() > 0 && recordedCounters.maxTickNanos() <= recordedCounters.tickNanos();
+        assert recordedCounters.equals(new ControllerCounters(counters.ticks(), recordedCounters.tickNanos(),
+                recordedCounters.maxTickNanos(), counters.dispatchPasses(), 0, 0, counters.dispatchDecisions(),
+                counters.callsAssigned(), counters.callsWaiting(), counters.peakCallsWaiting(),
+                counters.directionChanges()));
+        Map<String, Integer> eventCounts = new HashMap<>();
+        long callsAssigned = 0;
+        for (jdk.jfr.consumer.RecordedEvent event : events) {
+            eventCounts.merge(event.getEventType().getName(), 1, Integer::sum);
+            if (event.getEventType().getName().equals("elevatorsim.DispatchPass")) {
+                callsAssigned += event.getInt("callsAssigned");
+            }
+        }
+        System.out.println(eventCounts);
+        assert eventCounts.get("elevatorsim.Tick") == counters.ticks();
+        assert eventCounts.get("elevatorsim.DispatchPass") == counters.dispatchPasses();
+        assert eventCounts.get("elevatorsim.DispatchDecision") == counters.dispatchDecisions();
+        assert eventCounts.get("elevatorsim.DirectionChange") == counters.directionChanges();
+        assert callsAssigned == counters.callsAssigned();
+        System.out.println("END TEST CASE 26--------------------------------------------------------------------------------------------------");
+    }
+
+    /*
+     * Test Case 27: Prometheus metrics endpoint. A live controller for 3 cars in a 10 story
+     * building publishes to an endpoint on a free local port. It is scraped before any
+     * calls, after 6 hall calls and one tick, and once everyone has been served. Then the
+     * controller thread runs flat out with calls coming in while the endpoint is scraped
+     * 20 times, and once more after it stops.
+     * Expected: every scrape matches the controller's cars, waiting calls and wait times as
+     * of the last tick, histogram buckets never go down, scrapes while the controller runs
+     * see time move forward and never fail, and the scrape after it stops is up to date.
+     */
+    public static void testCase27() {
+        System.out.println("START TEST CASE 27:--------------------------------------------------------------------------------------------------");
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(10, 1).withNumElevators(3);
+        try (LiveController live = new LiveController(config, 256);
+                MetricsEndpoint endpoint = new MetricsEndpoint(new java.net.InetSocketAddress("127.0.0.1", 0), 0)) {
+            live.publishMetricsTo(endpoint);
+            MultiElevatorController controller = live.getController();
+            Map<String, Double> metrics = scrape(endpoint.getPort());
+            assert metrics.get("elevatorsim_pending_hall_calls") == 0;
+            assert metrics.get("elevatorsim_car_floor{elevator=\"2\"}") == 1;
+            assert metrics.get("elevatorsim_car_direction{elevator=\"2\",direction=\"IDLE\"}") == 1;
+
+            for (int floor = 2; floor <= 7; floor++) {
+                assert live.submitHallCall(floor, Direction.DOWN, 1);
+            }
+            live.tick();
+            metrics = scrape(endpoint.getPort());
+            assert metrics.get("elevatorsim_pending_hall_calls") == controller.getCounters().callsWaiting();
+            assert metrics.get("elevatorsim_calls_accepted_total") == 6;
+            assert metrics.get("elevatorsim_calls_assigned_total") + metrics.get("elevatorsim_pending_hall_calls") == 6;
+            for (Elevator elevator : controller.getElevators()) {
+                String car = "{elevator=\"" + elevator.getElevatorID() + "\"}";
+                assert metrics.get("elevatorsim_car_floor" + car) == elevator.getCurrentFloor();
+                assert metrics.get("elevatorsim_car_queue_depth" + car) == elevator.numOfTotalRequests();
+                String direction = "{elevator=\"" + elevator.getElevatorID() + "\",direction=\""
+                        + elevator.getDirection() + "\"}";
+                assert metrics.get("elevatorsim_car_direction" + direction) == 1;
+            }
+
+            while (controller.getMetrics().pendingRequests() > 0
+                    || controller.getElevators().stream().anyMatch(Elevator::isActive)) {
+                live.tick();
+            }
+            metrics = scrape(endpoint.getPort());
+            LatencySummary waitTime = controller.getMetrics().waitTime();
+            assert metrics.get("elevatorsim_time") == live.getCurrentTime();
+            assert metrics.get("elevatorsim_wait_time_units_count") == 6;
+            assert metrics.get("elevatorsim_wait_time_units_bucket{le=\"+Inf\"}") == 6;
+            assert Math.abs(metrics.get("elevatorsim_wait_time_units_sum") / 6 - waitTime.mean()) < 1e-9;
+            double previous = 0;
+            for (int bound : new int[] { 5, 10, 15, 20, 30, 45, 60, 90, 120, 180, 300, 600 }) {
+                double bucket = metrics.get("elevatorsim_wait_time_units_bucket{le=\"" + bound + "\"}");
+                assert bucket >= previous && (bound < waitTime.max() || bucket == 6);
+                previous = bucket;
+            }
+            double byCar = 0;
+            for (int car = 0; car < 3; car++) {
+                byCar += metrics.get("elevatorsim_wait_time_units_count{elevator=\"" + car + "\"}");
+            }
+            assert byCar == 6;
+            assert metrics.get("elevatorsim_dispatch_duration_seconds_count") == controller.getCounters().dispatchPasses();
+            assert metrics.get("elevatorsim_dispatch_duration_seconds_sum") > 0;
+
+            Thread producer = new Thread(() -> {
+                Random random = new Random(27);
+                while (!Thread.currentThread().isInterrupted()) {
+                    int floor = 1 + random.nextInt(10);
+                    int destination = floor == 10 ? 1 : 10;
+                    live.submitHallCall(floor, destination > floor ? Direction.UP : Direction.DOWN, destination);
+                    java.util.concurrent.locks.LockSupport.parkNanos(100_000);
+                }
+            });
+            producer.start();
+            live.start(0);
+            double startTime = metrics.get("elevatorsim_time");
+            double time = startTime;
+            for (int i = 0; i < 20; i++) {
+                metrics = scrape(endpoint.getPort());
+                assert metrics.get("elevatorsim_time") >= time;
+                time = metrics.get("elevatorsim_time");
+                java.util.concurrent.locks.LockSupport.parkNanos(5_000_000);
+            }
+            assert time > startTime && metrics.get("elevatorsim_calls_accepted_total") > 6;
+            live.stop();
+            producer.interrupt();
+            producer.join();
+            metrics = scrape(endpoint.getPort());
+            System.out.println("Scraped time " + (int) time + " while running, " + live.getCurrentTime() + " after stopping");
+            assert metrics.get("elevatorsim_time") == live.getCurrentTime();
+            assert metrics.get("elevatorsim_calls_accepted_total") == live.getCallsAccepted();
+            assert metrics.get("elevatorsim_pending_hall_calls") == controller.getCounters().callsWaiting();
+
+            java.net.HttpURLConnection post = (java.net.HttpURLConnection) java.net.URI
+                    .create("http://127.0.0.1:" + endpoint.getPort() + "/metrics").toURL().openConnection();
+            post.setRequestMethod("POST");
+            assert post.getResponseCode() == 405;
+            post.disconnect();
+        } catch (java.io.IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("END TEST CASE 27--------------------------------------------------------------------------------------------------");
+    }
+
+    // Every sample the endpoint serves, keyed by metric name and labels
+    private static Map<String, Double> scrape(int port) throws java.io.IOException {
+        java.net.HttpURLConnection connection = (java.net.HttpURLConnection) java.net.URI
+                .create("http://127.0.0.1:" + port + "/metrics").toURL().openConnection();
+        assert connection.getResponseCode() == 200;
+        assert connection.getContentType().equals(MetricsEndpoint.CONTENT_TYPE);
+        Map<String, Double> samples = new HashMap<>();
+        try (java.io.InputStream in = connection.getInputStream()) {
+            for (String line : new String(in.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8).split("\n")) {
+                if (!line.startsWith("#") && !line.isEmpty()) {
+                    int space = line.lastIndexOf(' ');
+                    samples.put(line.substring(0, space), Double.parseDouble(line.substring(space + 1)));
+                }
+            }
+        }
+        connection.disconnect();
+        return samples;
+    }
+
+
+    public static void main(String[] args) {
+        testCase0();
+        testCase1();
+        testCase2();
+        testCase3();
+        testCase4();
+        testCase5();
+        testCase6();
+        testCase7();
+        testCase8();
+        testCase9();
+        testCase10();
+        testCase11();
+        testCase12();
+        testCase13();
+        testCase14();
+        testCase15();
+        testCase16();
+        testCase17();
+        testCase18();
+        testCase19();
+        testCase20();
+        testCase21();
+        testCase22();
+        testCase23();
+        testCase24();
+        testCase25();
+        testCase26();
+        testCase27();
+    }
+}
\ No newline at end of file
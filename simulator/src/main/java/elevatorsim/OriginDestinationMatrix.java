@@ -0,0 +1,154 @@
+package elevatorsim;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+/**
+ * How likely a trip is to go from each floor to each other floor. Trips are drawn with
+ * Walker's alias method: one random number picks a column of a table and a second one
+ * decides between the column's two pairs, so drawing a trip takes the same short time
+ * however many floors the building has.
+ */
+final class OriginDestinationMatrix {
+
+    private final int[] origins;
+    private final int[] destinations;
+    // Pair i is drawn if column i is picked and the second draw falls below threshold[i],
+    // otherwise pair alias[i] is
+    private final double[] threshold;
+    private final int[] alias;
+
+    /*
+     * A matrix from relative weights, indexed by origin and destination floor - bottomFloor.
+     * Weights on the diagonal are ignored.
+     */
+    OriginDestinationMatrix(int bottomFloor, double[][] weights) {
+        ArrayList<int[]> pairs = new ArrayList<>();
+        ArrayList<Double> pairWeights = new ArrayList<>();
+        double total = 0;
+        for (int origin = 0; origin < weights.length; origin++) {
+            for (int destination = 0; destination < weights[origin].length; destination++) {
+                double weight = weights[origin][destination];
+                if (weight < 0 || Double.isNaN(weight)) {
+                    throw new IllegalArgumentException("Weights must not be negative, got " + weight);
+                }
+                if (weight > 0 && origin != destination) {
+                    pairs.add(new int[] { bottomFloor + origin, bottomFloor + destination });
+                    pairWeights.add(weight);
+                    total += weight;
+                }
+            }
+        }
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("No trip has a positive weight");
+        }
+        int n = pairs.size();
+        origins = new int[n];
+        destinations = new int[n];
+        threshold = new double[n];
+        alias = new int[n];
+        // Scale the weights to average 1, then pair every column below 1 with one above it
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            origins[i] = pairs.get(i)[0];
+            destinations[i] = pairs.get(i)[1];
+            threshold[i] = pairWeights.get(i) * n / total;
+            if (threshold[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            threshold[more] -= 1 - threshold[less];
+            if (threshold[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // What is left is 1 up to rounding
+        while (largeCount > 0) {
+            threshold[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            threshold[small[--smallCount]] = 1;
+        }
+    }
+
+    /*
+     * Trips of the given pattern in the building, with the lobby at its bottom floor and
+     * the same number of people on every other floor.
+     */
+    static OriginDestinationMatrix forPattern(BuildingConfig config, TrafficPattern pattern) {
+        double[] population = new double[config.numFloors()];
+        for (int floor = config.bottomFloor() + 1; floor <= config.topFloor(); floor++) {
+            population[floor - config.bottomFloor()] = 1;
+        }
+        return forPattern(config, pattern, config.bottomFloor(), population);
+    }
+
+    /*
+     * Trips of the given pattern, where people come in and leave through the lobby and the
+     * upper floors attract and send trips in proportion to their population, indexed by
+     * floor - bottomFloor. The lobby's own population is ignored.
+     */
+    static OriginDestinationMatrix forPattern(BuildingConfig config, TrafficPattern pattern, int lobby,
+            double[] population) {
+        int floors = config.numFloors();
+        int lobbyIndex = lobby - config.bottomFloor();
+        if (lobbyIndex < 0 || lobbyIndex >= floors) {
+            throw new IllegalArgumentException("Lobby " + lobby + " is outside the building");
+        }
+        if (population.length != floors) {
+            throw new IllegalArgumentException("Need a population for each of the " + floors + " floors");
+        }
+        double people = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < floors; i++) {
+            if (i != lobbyIndex) {
+                people += population[i];
+                sumOfSquares += population[i] * population[i];
+            }
+        }
+        // Ways to pick two different upper floors, weighted by population
+        double interfloorPairs = people * people - sumOfSquares;
+        double[][] weights = new double[floors][floors];
+        for (int i = 0; i < floors; i++) {
+            if (i == lobbyIndex || people == 0) {
+                continue;
+            }
+            double share = population[i] / people;
+            weights[lobbyIndex][i] += pattern.incoming() * share;
+            weights[i][lobbyIndex] += pattern.outgoing() * share;
+            if (interfloorPairs > 0) {
+                for (int j = 0; j < floors; j++) {
+                    if (j != i && j != lobbyIndex) {
+                        weights[i][j] += pattern.interfloor() * population[i] * population[j] / interfloorPairs;
+                    }
+                }
+            }
+        }
+        return new OriginDestinationMatrix(config.bottomFloor(), weights);
+    }
+
+    // Draws a trip, returned as an index for origin and destination
+    int sample(SplittableRandom random) {
+        int column = random.nextInt(threshold.length);
+        return random.nextDouble() < threshold[column] ? column : alias[column];
+    }
+
+    int origin(int trip) {
+        return origins[trip];
+    }
+
+    int destination(int trip) {
+        return destinations[trip];
+    }
+}
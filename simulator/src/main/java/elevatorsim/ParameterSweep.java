@@ -0,0 +1,46 @@
+package elevatorsim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Runs one request schedule against many building configurations at once. Every
+ * configuration gets its own MultiElevatorController, and the controllers share
+ * nothing but the read-only schedule, so the runs are spread over a ForkJoinPool
+ * and finish roughly as many times faster as the pool has workers.
+ */
+final class ParameterSweep {
+
+    private ParameterSweep() {
+    }
+
+    static List<SimulationMetrics> run(List<BuildingConfig> configs,
+            Map<Integer, List<MultiElevatorController.Request>> mapOfTimesToRequest) {
+        return run(configs, mapOfTimesToRequest, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * Simulates every configuration for its own simTime and returns the metrics in the
+     * same order as configs.
+     */
+    static List<SimulationMetrics> run(List<BuildingConfig> configs,
+            Map<Integer, List<MultiElevatorController.Request>> mapOfTimesToRequest, ForkJoinPool pool) {
+        List<ForkJoinTask<SimulationMetrics>> runs = new ArrayList<>(configs.size());
+        for (BuildingConfig config : configs) {
+            runs.add(pool.submit(() -> runOne(config, mapOfTimesToRequest)));
+        }
+        List<SimulationMetrics> results = new ArrayList<>(runs.size());
+        for (ForkJoinTask<SimulationMetrics> run : runs) {
+            results.add(run.join());
+        }
+        return results;
+    }
+
+    static SimulationMetrics runOne(BuildingConfig config,
+            Map<Integer, List<MultiElevatorController.Request>> mapOfTimesToRequest) {
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.runSimulation(mapOfTimesToRequest, config.simTime());
+        return controller.getMetrics();
+    }
+}
@@ -0,0 +1,69 @@
+package elevatorsim;
+
+import java.util.*;
+
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Requests in non-decreasing time order, pulled by the simulation one at a time as the
+ * simulated clock reaches them. Requests a run doesn't reach stay in the source for the
+ * next run, so a long trace can be played through several calls to runSimulation.
+ */
+interface RequestSource {
+
+    /*
+     * A source without requests, for runs that are fed requests some other way while they run.
+     */
+    RequestSource NONE = new RequestSource() {
+        @Override
+        public Request peek() {
+            return null;
+        }
+
+        @Override
+        public Request poll() {
+            return null;
+        }
+    };
+
+    /*
+     * The next request, without consuming it, or null once the source is exhausted.
+     */
+    Request peek();
+
+    /*
+     * Consumes and returns the next request, or null once the source is exhausted.
+     */
+    Request poll();
+
+    /*
+     * A source over a schedule built in memory, keyed by request time. Requests of the same
+     * time come out in list order.
+     */
+    static RequestSource of(Map<Integer, List<Request>> mapOfTimesToRequest) {
+        Iterator<List<Request>> lists = new TreeMap<>(mapOfTimesToRequest).values().iterator();
+        return new RequestSource() {
+            private Iterator<Request> requests = Collections.emptyIterator();
+            private Request next;
+
+            @Override
+            public Request peek() {
+                while (next == null && (requests.hasNext() || lists.hasNext())) {
+                    if (requests.hasNext()) {
+                        next = requests.next();
+                    } else {
+                        requests = lists.next().iterator();
+                    }
+                }
+                return next;
+            }
+
+            @Override
+            public Request poll() {
+                Request request = peek();
+                next = null;
+                return request;
+            }
+        };
+    }
+}
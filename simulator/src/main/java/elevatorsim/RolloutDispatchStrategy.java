@@ -0,0 +1,242 @@
+package elevatorsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import elevatorsim.MultiElevatorController.Elevator;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Looks ahead before assigning a hall call: for every car that could take the call, the
+ * controller is forked, the call is given to that car, and the fork runs on for a while
+ * with traffic drawn at random from a matrix of trips. The call goes to the car whose
+ * rollouts end up with the least total waiting, counting every passenger waiting at the
+ * start and every one arriving during the rollout, and passengers not picked up by the
+ * end as waiting until then.
+ *
+ * Every car is rolled out against the same draws of traffic, so the cars are compared on
+ * the traffic rather than on luck, and the rollouts run in parallel on a ForkJoinPool.
+ * Each decision has a hard time budget. Rollouts still running when it is spent are
+ * abandoned, only draws every car finished are compared, and if there are none the call
+ * goes where the greedy strategy puts it. The greedy strategy also makes the calls no
+ * rollout is needed for, and dispatches inside the forks.
+ *
+ * The same seed gives the same decisions as long as every rollout finishes in time.
+ */
+final class RolloutDispatchStrategy implements DispatchStrategy {
+
+    // Rollouts check the budget this often, in time units of the simulation
+    private static final int CHECK_INTERVAL = 8;
+
+    private final OriginDestinationMatrix trips;
+    private final double arrivalRate;
+    private final int horizon;
+    private final int rollouts;
+    private final long budgetNanos;
+    private final DispatchStrategy greedy;
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+    private long decisions;
+    private long fallbacks;
+
+    RolloutDispatchStrategy(OriginDestinationMatrix trips, double arrivalRate, int horizon, int rollouts,
+            long budgetNanos, long seed) {
+        this(trips, arrivalRate, horizon, rollouts, budgetNanos, seed, new EtaDispatchStrategy(),
+                ForkJoinPool.commonPool());
+    }
+
+    /*
+     * A strategy that rolls each car out the given number of times for horizon time units
+     * of traffic arriving at arrivalRate passengers per time unit, taking at most
+     * budgetNanos per decision, and falls back to greedy.
+     */
+    RolloutDispatchStrategy(OriginDestinationMatrix trips, double arrivalRate, int horizon, int rollouts,
+            long budgetNanos, long seed, DispatchStrategy greedy, ForkJoinPool pool) {
+        if (arrivalRate < 0 || Double.isNaN(arrivalRate)) {
+            throw new IllegalArgumentException("arrivalRate must not be negative, got " + arrivalRate);
+        }
+        if (horizon < 1) {
+            throw new IllegalArgumentException("horizon must be at least 1, got " + horizon);
+        }
+        if (rollouts < 1) {
+            throw new IllegalArgumentException("rollouts must be at least 1, got " + rollouts);
+        }
+        this.trips = trips;
+        this.arrivalRate = arrivalRate;
+        this.horizon = horizon;
+        this.rollouts = rollouts;
+        this.budgetNanos = budgetNanos;
+        this.greedy = greedy;
+        this.pool = pool;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public Elevator selectElevator(MultiElevatorController controller, Request request, List<Elevator> candidates) {
+        long deadline = System.nanoTime() + budgetNanos;
+        Elevator greedyChoice = greedy.selectElevator(controller, request, candidates);
+        // Nobody takes the call yet, a car with room already stops for it anyway, or the cars
+        // can't be forked
+        Elevator owner = controller.getHallCallOwner(request.floor, request.direction);
+        if (greedyChoice == null || !controller.canFork() || (owner != null && owner.hasRoomFor(request))) {
+            return greedyChoice;
+        }
+        List<Elevator> choices = new ArrayList<>(candidates.size());
+        for (Elevator elevator : candidates) {
+            if (elevator.hasRoomFor(request)) {
+                choices.add(elevator);
+            }
+        }
+        if (choices.size() < 2) {
+            return greedyChoice;
+        }
+        decisions++;
+        long[] seeds = new long[rollouts];
+        for (int i = 0; i < rollouts; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        // Forks are taken here, since the controller may only be read from this thread
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(choices.size() * rollouts);
+        forking:
+        for (Elevator elevator : choices) {
+            for (long seed : seeds) {
+                if (System.nanoTime() >= deadline) {
+                    break forking;
+                }
+                MultiElevatorController fork = controller.lookaheadFork();
+                fork.assign(request, elevator.getElevatorID());
+                tasks.add(pool.submit(() -> rollOut(fork, seed, deadline)));
+            }
+        }
+
+        // Total waiting per car and draw, or -1 where the rollout didn't finish
+        long[][] waiting = new long[choices.size()][rollouts];
+        for (int i = 0; i < tasks.size(); i++) {
+            waiting[i / rollouts][i % rollouts] = result(tasks.get(i), deadline);
+        }
+        for (int i = tasks.size(); i < choices.size() * rollouts; i++) {
+            waiting[i / rollouts][i % rollouts] = -1;
+        }
+        Elevator bestElevator = null;
+        double bestWaiting = Double.MAX_VALUE;
+        for (int car = 0; car < choices.size(); car++) {
+            long total = 0;
+            int compared = 0;
+            for (int draw = 0; draw < rollouts; draw++) {
+                if (finishedByAll(waiting, draw)) {
+                    total += waiting[car][draw];
+                    compared++;
+                }
+            }
+            if (compared > 0 && (double) total / compared < bestWaiting) {
+                bestWaiting = (double) total / compared;
+                bestElevator = choices.get(car);
+            }
+        }
+        if (bestElevator == null) {
+            fallbacks++;
+            return greedyChoice;
+        }
+        return bestElevator;
+    }
+
+    /*
+     * Forks dispatch with the greedy strategy, since rolling out every decision inside a
+     * rollout would never end.
+     */
+    @Override
+    public DispatchStrategy forkedCopy() {
+        return greedy.forkedCopy();
+    }
+
+    // Decisions that called for rollouts, and those of them left to the greedy strategy
+    long getDecisions() {
+        return decisions;
+    }
+
+    long getFallbacks() {
+        return fallbacks;
+    }
+
+    /*
+     * Runs the fork for horizon time units of traffic drawn with the seed, and returns the
+     * passengers' total waiting time in passenger time units, or -1 if the deadline came
+     * first.
+     */
+    private long rollOut(MultiElevatorController fork, long seed, long deadline) {
+        int start = fork.getCurrentTime();
+        int end = start + horizon;
+        WaitingTotal total = new WaitingTotal(end);
+        fork.forEachWaitingRequest(total::count);
+        fork.setEventListener(total);
+        TrafficGenerator traffic = new TrafficGenerator(
+                List.of(new TrafficGenerator.Period(start, end, arrivalRate, trips)), seed);
+        while (fork.getCurrentTime() < end) {
+            if (System.nanoTime() >= deadline) {
+                return -1;
+            }
+            fork.runSimulation(traffic, Math.min(CHECK_INTERVAL, end - fork.getCurrentTime()));
+        }
+        return total.waiting;
+    }
+
+    // The rollout's total, or -1 if it isn't done by the deadline
+    private static long result(ForkJoinTask<Long> task, long deadline) {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // A rollout that hasn't started yet never will
+            task.cancel(false);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollout failed", e.getCause());
+        }
+    }
+
+    private static boolean finishedByAll(long[][] waiting, int draw) {
+        for (long[] car : waiting) {
+            if (car[draw] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Adds up how long passengers wait up to the end of a rollout. Every call counts as
+     * waiting until the end when it is made or found waiting, and the time from boarding
+     * to the end is taken off again when its passengers board.
+     */
+    private static final class WaitingTotal implements ElevatorEventListener {
+        private final int end;
+        long waiting;
+
+        WaitingTotal(int end) {
+            this.end = end;
+        }
+
+        @Override
+        public void onFloorButtonPressed(int time, Request request) {
+            count(request);
+        }
+
+        void count(Request request) {
+            waiting += (long) request.passengers * (end - request.time);
+        }
+
+        @Override
+        public void onPassengerEnter(int time, int elevatorID, Request request) {
+            waiting -= (long) request.passengers * (end - time);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package elevatorsim;
+
+/**
+ * Aggregate results of one simulation run.
+ *
+ * @param config             the building the run simulated
+ * @param requestsSubmitted  hall calls made during the run
+ * @param passengersPickedUp passengers who boarded a car, counting everyone travelling together on a request
+ * @param pendingRequests    hall calls still waiting for a car when the run ended
+ * @param floorsTravelled    floors travelled, summed over all cars
+ * @param stopsMade          door openings, summed over all cars
+ * @param requestsReturned   times a car gave a hall call back for reassignment because it had no room
+ * @param lastEventTime      time of the last event processed, i.e. when the building went quiet
+ * @param waitTime           time from hall call to boarding, for passengers who have arrived, per passenger
+ * @param rideTime           time from boarding to arrival
+ * @param journeyTime        time from hall call to arrival
+ */
+record SimulationMetrics(BuildingConfig config, int requestsSubmitted, int passengersPickedUp,
+        int pendingRequests, long floorsTravelled, long stopsMade, long requestsReturned, int lastEventTime,
+        LatencySummary waitTime, LatencySummary rideTime, LatencySummary journeyTime) {
+}
@@ -0,0 +1,82 @@
+package elevatorsim;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes each event as a line of text, in the same format the controllers used to print
+ * to the console. Output is buffered and flushed at the end of every run, or when the
+ * buffer fills up.
+ */
+final class TextEventLogger implements ElevatorEventListener, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+
+    TextEventLogger(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public void onFloorButtonPressed(int time, MultiElevatorController.Request request) {
+        write("Event: Floor button pressed. floor: " + request.floor + ", direction: "
+                + request.direction + ", destination:" + request.destination);
+    }
+
+    @Override
+    public void onRequestAssigned(int time, int elevatorID, MultiElevatorController.Request request) {
+        write("Info: Elevator: " + elevatorID + " was assigned request: " + request.floor
+                + request.direction + " with destination: " + request.destination);
+    }
+
+    @Override
+    public void onElevatorButtonPressed(int time, int elevatorID, int floor) {
+        write("Event: Elevator: " + elevatorID + " button pressed for floor: " + floor);
+    }
+
+    @Override
+    public void onPassengersExit(int time, int elevatorID, int floor) {
+        write("Info: Elevator: " + elevatorID + " Passenger(s) exiting elevator on floor: " + floor);
+    }
+
+    @Override
+    public void onPassengerEnter(int time, int elevatorID, MultiElevatorController.Request request) {
+        write("Info: Elevator: " + elevatorID + " Passenger(s) entering elevator on floor: " + request.floor);
+    }
+
+    @Override
+    public void onRequestReturned(int time, int elevatorID, MultiElevatorController.Request request) {
+        write("Info: Elevator: " + elevatorID + " has no room, returning request: " + request.floor
+                + request.direction + " with destination: " + request.destination);
+    }
+
+    @Override
+    public void onStatus(int time, int elevatorID, int floor, MultiElevatorController.Direction direction) {
+        write("Status: Time: " + time + ", ElevatorID: " + elevatorID + ", floor: " + floor
+                + ", direction: " + direction);
+    }
+
+    @Override
+    public void onRunComplete(int time) {
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(String line) {
+        try {
+            out.write(line);
+            out.write(System.lineSeparator());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
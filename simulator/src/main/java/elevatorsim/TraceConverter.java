@@ -0,0 +1,44 @@
+package elevatorsim;
+
+import java.io.*;
+import java.nio.file.Path;
+
+/**
+ * Converts a CSV or JSONL request trace into the binary trace format, so it can be replayed
+ * through BinaryTraceReader without parsing text. Usage:
+ *
+ * <pre>
+ *   java elevatorsim.TraceConverter requests.csv requests.bin
+ * </pre>
+ */
+final class TraceConverter {
+
+    private TraceConverter() {
+    }
+
+    /*
+     * Writes every request of the text trace as a FLOOR_BUTTON record. Returns the number of
+     * requests converted.
+     */
+    static long convert(Path textTrace, Path binaryTrace) throws IOException {
+        long requests = 0;
+        try (TraceReader reader = TraceReader.open(textTrace);
+                BinaryTraceWriter writer = BinaryTraceWriter.map(binaryTrace)) {
+            MultiElevatorController.Request request;
+            while ((request = reader.poll()) != null) {
+                writer.writeRequest(request);
+                requests++;
+            }
+        }
+        return requests;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceConverter <text trace> <binary trace>");
+            System.exit(2);
+        }
+        long requests = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.println("Converted " + requests + " requests to " + args[1]);
+    }
+}
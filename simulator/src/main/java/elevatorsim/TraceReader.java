@@ -0,0 +1,409 @@
+package elevatorsim;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Streams requests from a text trace, one request per line, in either of two formats:
+ *
+ * <pre>
+ *   CSV:   floor,direction,destination,time[,passengers[,weight]]
+ *          3,UP,6,0
+ *          1,UP,9,4,3,240
+ *   JSONL: {"floor":3,"direction":"UP","destination":6,"time":0}
+ *          {"floor":1,"direction":"UP","destination":9,"time":4,"passengers":3,"weight":240}
+ * </pre>
+ *
+ * Passengers default to 1 and weight to Request.PASSENGER_WEIGHT per passenger.
+ * A CSV header line is skipped, as are blank lines and lines starting with '#'. JSON keys
+ * may come in any order and unknown keys are ignored. Directions are UP, DOWN or IDLE in
+ * any case. Lines must be in non-decreasing time order.
+ *
+ * The trace is read through a fixed-size buffer and parsed in place, so memory use doesn't
+ * depend on the length of the trace. Malformed lines throw IllegalArgumentException and
+ * read errors throw UncheckedIOException, both naming the line.
+ */
+final class TraceReader implements RequestSource, Closeable {
+
+    enum Format {
+        CSV,
+        JSONL
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] FLOOR = ascii("floor");
+    private static final byte[] DIRECTION = ascii("direction");
+    private static final byte[] DESTINATION = ascii("destination");
+    private static final byte[] TIME = ascii("time");
+    private static final byte[] PASSENGERS = ascii("passengers");
+    private static final byte[] WEIGHT = ascii("weight");
+
+    private final ReadableByteChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private boolean endOfInput;
+
+    private byte[] line = new byte[256]; // The current line, grown to fit the longest line read
+    private int lineLength;
+    private int position; // Parse position within the current line
+    private long lineNumber;
+    private boolean headerAllowed = true; // Until the first line that isn't blank or a comment
+
+    private Request next;
+    private int lastTime = Integer.MIN_VALUE;
+
+    TraceReader(ReadableByteChannel channel, Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    /*
+     * Opens a trace file, taking the format from its extension: .jsonl, .ndjson and .json
+     * files are read as JSONL, anything else as CSV.
+     */
+    static TraceReader open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase();
+        Format format = name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")
+                ? Format.JSONL
+                : Format.CSV;
+        return new TraceReader(FileChannel.open(path, StandardOpenOption.READ), format);
+    }
+
+    @Override
+    public Request peek() {
+        if (next == null) {
+            next = readRequest();
+        }
+        return next;
+    }
+
+    @Override
+    public Request poll() {
+        Request request = peek();
+        next = null;
+        return request;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Request readRequest() {
+        while (readLine()) {
+            position = 0;
+            skipWhitespace();
+            if (position == lineLength || line[position] == '#') {
+                continue;
+            }
+            if (format == Format.CSV && !isDigit(line[position]) && line[position] != '-') {
+                if (headerAllowed) {
+                    headerAllowed = false;
+                    continue;
+                }
+                throw malformed("expected a request");
+            }
+            headerAllowed = false;
+            Request request = format == Format.CSV ? parseCsv() : parseJson();
+            if (request.time < lastTime) {
+                throw malformed("time " + request.time + " is earlier than the previous request's time " + lastTime);
+            }
+            lastTime = request.time;
+            return request;
+        }
+        return null;
+    }
+
+    /*
+     * Copies the next line, without its line terminator, into line. Returns false at the
+     * end of the input.
+     */
+    private boolean readLine() {
+        lineLength = 0;
+        boolean readAny = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (endOfInput || !fill()) {
+                    if (readAny) {
+                        lineNumber++;
+                    }
+                    return readAny;
+                }
+            }
+            readAny = true;
+            byte[] bytes = buffer.array();
+            int start = buffer.position();
+            int end = buffer.limit();
+            int i = start;
+            while (i < end && bytes[i] != '\n') {
+                i++;
+            }
+            append(bytes, start, i - start);
+            if (i < end) {
+                buffer.position(i + 1);
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                lineNumber++;
+                return true;
+            }
+            buffer.position(end);
+        }
+    }
+
+    private boolean fill() {
+        buffer.clear();
+        try {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            if (read < 0) {
+                endOfInput = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading trace after line " + lineNumber, e);
+        } finally {
+            buffer.flip();
+        }
+        return buffer.hasRemaining();
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private Request parseCsv() {
+        int floor = parseInt();
+        expect(',');
+        Direction direction = parseDirection(',');
+        expect(',');
+        int destination = parseInt();
+        expect(',');
+        int time = parseInt();
+        int passengers = 1;
+        int weight = -1;
+        if (position < lineLength && line[position] == ',') {
+            position++;
+            passengers = parseInt();
+            if (position < lineLength && line[position] == ',') {
+                position++;
+                weight = parseWeight();
+            }
+        }
+        skipWhitespace();
+        if (position != lineLength) {
+            throw malformed("unexpected text after the last field");
+        }
+        return newRequest(floor, direction, destination, time, passengers, weight);
+    }
+
+    private Request parseJson() {
+        int floor = 0, destination = 0, time = 0;
+        int passengers = 1;
+        int weight = -1;
+        Direction direction = null;
+        int fieldsSeen = 0; // Bit per required field
+        expect('{');
+        skipWhitespace();
+        if (position < lineLength && line[position] == '}') {
+            throw malformed("missing floor, direction, destination and time");
+        }
+        while (true) {
+            skipWhitespace();
+            expect('"');
+            int keyStart = position;
+            while (position < lineLength && line[position] != '"') {
+                position++;
+            }
+            int keyEnd = position;
+            expect('"');
+            expect(':');
+            skipWhitespace();
+            if (keyIs(FLOOR, keyStart, keyEnd)) {
+                floor = parseInt();
+                fieldsSeen |= 1;
+            } else if (keyIs(DIRECTION, keyStart, keyEnd)) {
+                expect('"');
+                direction = parseDirection('"');
+                expect('"');
+                fieldsSeen |= 2;
+            } else if (keyIs(DESTINATION, keyStart, keyEnd)) {
+                destination = parseInt();
+                fieldsSeen |= 4;
+            } else if (keyIs(TIME, keyStart, keyEnd)) {
+                time = parseInt();
+                fieldsSeen |= 8;
+            } else if (keyIs(PASSENGERS, keyStart, keyEnd)) {
+                passengers = parseInt();
+            } else if (keyIs(WEIGHT, keyStart, keyEnd)) {
+                weight = parseWeight();
+            } else {
+                skipJsonValue();
+            }
+            skipWhitespace();
+            if (position < lineLength && line[position] == ',') {
+                position++;
+                continue;
+            }
+            expect('}');
+            break;
+        }
+        skipWhitespace();
+        if (position != lineLength) {
+            throw malformed("unexpected text after the object");
+        }
+        if (fieldsSeen != 15) {
+            throw malformed("missing one of floor, direction, destination and time");
+        }
+        return newRequest(floor, direction, destination, time, passengers, weight);
+    }
+
+    // A weight of -1 means the line didn't give one
+    private Request newRequest(int floor, Direction direction, int destination, int time, int passengers,
+            int weight) {
+        if (passengers < 1) {
+            throw malformed("passengers must be at least 1");
+        }
+        return weight < 0
+                ? new Request(floor, direction, destination, time, passengers)
+                : new Request(floor, direction, destination, time, passengers, weight);
+    }
+
+    /*
+     * Skips a string, number, true, false or null. Nested objects and arrays aren't part of
+     * the format.
+     */
+    private void skipJsonValue() {
+        if (position < lineLength && line[position] == '"') {
+            position++;
+            while (position < lineLength && line[position] != '"') {
+                if (line[position] == '\\') {
+                    position++;
+                }
+                position++;
+            }
+            expect('"');
+            return;
+        }
+        int start = position;
+        while (position < lineLength && line[position] != ',' && line[position] != '}'
+                && line[position] != ' ' && line[position] != '\t') {
+            if (line[position] == '{' || line[position] == '[') {
+                throw malformed("nested values aren't supported");
+            }
+            position++;
+        }
+        if (position == start) {
+            throw malformed("expected a value");
+        }
+    }
+
+    private int parseInt() {
+        skipWhitespace();
+        boolean negative = position < lineLength && line[position] == '-';
+        if (negative) {
+            position++;
+        }
+        int start = position;
+        long value = 0;
+        while (position < lineLength && isDigit(line[position])) {
+            value = value * 10 + (line[position] - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw malformed("number out of range");
+            }
+            position++;
+        }
+        if (position == start) {
+            throw malformed("expected a number");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw malformed("number out of range");
+        }
+        skipWhitespace();
+        return (int) value;
+    }
+
+    private int parseWeight() {
+        int weight = parseInt();
+        if (weight < 0) {
+            throw malformed("weight must not be negative");
+        }
+        return weight;
+    }
+
+    private Direction parseDirection(char terminator) {
+        skipWhitespace();
+        int start = position;
+        while (position < lineLength && line[position] != terminator && line[position] != ' '
+                && line[position] != '\t') {
+            position++;
+        }
+        int end = position;
+        skipWhitespace();
+        for (Direction direction : Direction.values()) {
+            if (nameIs(direction.name(), start, end)) {
+                return direction;
+            }
+        }
+        throw malformed("expected UP, DOWN or IDLE");
+    }
+
+    private boolean nameIs(String name, int start, int end) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toUpperCase((char) line[start + i]) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean keyIs(byte[] key, int start, int end) {
+        return Arrays.equals(line, start, end, key, 0, key.length);
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (position == lineLength || line[position] != c) {
+            throw malformed("expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (position < lineLength && (line[position] == ' ' || line[position] == '\t')) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException malformed(String problem) {
+        return new IllegalArgumentException("Trace line " + lineNumber + ", column " + (position + 1) + ": "
+                + problem);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,146 @@
+package elevatorsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * Synthetic hall calls, made up one at a time as the simulation pulls them, so a day of
+ * traffic or a year of it costs the same memory. The day is split into periods, each with
+ * its own arrival rate and its own matrix of where trips go. Within a period passengers
+ * arrive as a Poisson process, and since a Poisson process has no memory, a gap that runs
+ * past the end of a period is simply drawn again at the next period's rate.
+ *
+ * The same periods and seed always give the same calls.
+ */
+final class TrafficGenerator implements RequestSource {
+
+    /*
+     * A stretch of the day with a constant arrival rate.
+     *
+     * @param start       first time unit of the period
+     * @param end         time unit the period ends before
+     * @param arrivalRate mean number of passengers arriving per time unit
+     * @param trips       where they go
+     */
+    record Period(int start, int end, double arrivalRate, OriginDestinationMatrix trips) {
+
+        Period {
+            if (end < start) {
+                throw new IllegalArgumentException("Period ends at " + end + " before it starts at " + start);
+            }
+            if (arrivalRate < 0 || Double.isNaN(arrivalRate)) {
+                throw new IllegalArgumentException("arrivalRate must not be negative, got " + arrivalRate);
+            }
+        }
+    }
+
+    private final List<Period> periods;
+    private final SplittableRandom random;
+    private int period;
+    private double time;
+    private Request next;
+
+    /*
+     * Calls for the given periods, which must not overlap and must be in time order. No
+     * calls are made in the gaps between periods.
+     */
+    TrafficGenerator(List<Period> periods, long seed) {
+        for (int i = 1; i < periods.size(); i++) {
+            if (periods.get(i).start() < periods.get(i - 1).end()) {
+                throw new IllegalArgumentException("Periods must be in time order and not overlap");
+            }
+        }
+        this.periods = List.copyOf(periods);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /*
+     * A working day in an office building, repeated for the given number of days, each
+     * 11 hours long in time units of a second, from 07:00 to 18:00. The morning up-peak
+     * reaches peakRate passengers per time unit, lunch and the evening down-peak come
+     * close to it, and between the peaks there is light interfloor traffic. Everyone
+     * starts and ends at the bottom floor, and the upper floors are equally populated.
+     */
+    static TrafficGenerator officeDays(BuildingConfig config, double peakRate, int days, long seed) {
+        OriginDestinationMatrix upPeak = OriginDestinationMatrix.forPattern(config, TrafficPattern.UP_PEAK);
+        OriginDestinationMatrix downPeak = OriginDestinationMatrix.forPattern(config, TrafficPattern.DOWN_PEAK);
+        OriginDestinationMatrix lunch = OriginDestinationMatrix.forPattern(config, TrafficPattern.LUNCH);
+        OriginDestinationMatrix interfloor = OriginDestinationMatrix.forPattern(config, TrafficPattern.INTERFLOOR);
+        int hour = 3600;
+        List<Period> periods = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            int start = day * 11 * hour;
+            // Hours from 07:00, with the fraction of peakRate reached in each stretch
+            periods.add(new Period(start, start + hour / 2, 0.3 * peakRate, upPeak));
+            periods.add(new Period(start + hour / 2, start + 3 * hour / 2, peakRate, upPeak));
+            periods.add(new Period(start + 3 * hour / 2, start + 2 * hour, 0.5 * peakRate, upPeak));
+            periods.add(new Period(start + 2 * hour, start + 9 * hour / 2, 0.15 * peakRate, interfloor));
+            periods.add(new Period(start + 9 * hour / 2, start + 13 * hour / 2, 0.6 * peakRate, lunch));
+            periods.add(new Period(start + 13 * hour / 2, start + 19 * hour / 2, 0.15 * peakRate, interfloor));
+            periods.add(new Period(start + 19 * hour / 2, start + 21 * hour / 2, 0.8 * peakRate, downPeak));
+            periods.add(new Period(start + 21 * hour / 2, start + 11 * hour, 0.3 * peakRate, downPeak));
+        }
+        return new TrafficGenerator(periods, seed);
+    }
+
+    @Override
+    public Request peek() {
+        if (next == null) {
+            next = generate();
+        }
+        return next;
+    }
+
+    @Override
+    public Request poll() {
+        Request request = peek();
+        next = null;
+        return request;
+    }
+
+    private Request generate() {
+        while (period < periods.size()) {
+            Period current = periods.get(period);
+            time = Math.max(time, current.start());
+            if (current.arrivalRate() > 0) {
+                double gap = -Math.log(1 - random.nextDouble()) / current.arrivalRate();
+                if (time + gap < current.end()) {
+                    time += gap;
+                    int trip = current.trips().sample(random);
+                    int origin = current.trips().origin(trip);
+                    int destination = current.trips().destination(trip);
+                    return new Request(origin, destination > origin ? Direction.UP : Direction.DOWN, destination,
+                            (int) time);
+                }
+            }
+            time = current.end();
+            period++;
+        }
+        return null;
+    }
+
+    /*
+     * Runs office days against a controller and prints how it did, e.g.
+     * java elevatorsim.TrafficGenerator 40 8 0.5 30 for a month of working days in a 40
+     * story building with 8 cars and an up-peak of one passenger every 2 time units.
+     */
+    public static void main(String[] args) {
+        int floors = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int cars = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double peakRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        int days = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        BuildingConfig config = BuildingConfig.DEFAULT.withFloors(floors, 1).withNumElevators(cars)
+                .withTimings(1, 2, 2);
+        MultiElevatorController controller = new MultiElevatorController(config);
+        controller.setDispatchStrategy(new EtaDispatchStrategy());
+        long start = System.nanoTime();
+        // An hour more than the days themselves so the last passengers get where they are going
+        controller.runSimulation(officeDays(config, peakRate, days, 42), days * 11 * 3600 + 3600);
+        System.out.printf("Simulated %d days in %.1f s%n", days, (System.nanoTime() - start) / 1e9);
+        System.out.println(controller.getMetrics());
+    }
+}
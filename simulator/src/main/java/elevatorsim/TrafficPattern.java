@@ -0,0 +1,31 @@
+package elevatorsim;
+
+/**
+ * How a building's traffic splits between passengers coming in at the lobby, passengers
+ * leaving through it, and passengers moving between the upper floors. Only the ratio of
+ * the three matters.
+ *
+ * @param incoming   share of trips from the lobby to an upper floor
+ * @param outgoing   share of trips from an upper floor to the lobby
+ * @param interfloor share of trips between two upper floors
+ */
+record TrafficPattern(double incoming, double outgoing, double interfloor) {
+
+    // Morning arrivals: nearly everyone comes in from the lobby
+    static final TrafficPattern UP_PEAK = new TrafficPattern(0.85, 0.10, 0.05);
+    // Evening departures: nearly everyone leaves through the lobby
+    static final TrafficPattern DOWN_PEAK = new TrafficPattern(0.05, 0.90, 0.05);
+    // Lunch: people going out and coming back at once, with some visiting other floors
+    static final TrafficPattern LUNCH = new TrafficPattern(0.40, 0.40, 0.20);
+    // The rest of the working day: mostly meetings and visits between floors
+    static final TrafficPattern INTERFLOOR = new TrafficPattern(0.10, 0.10, 0.80);
+
+    TrafficPattern {
+        if (incoming < 0 || outgoing < 0 || interfloor < 0) {
+            throw new IllegalArgumentException("Shares must not be negative");
+        }
+        if (incoming + outgoing + interfloor <= 0) {
+            throw new IllegalArgumentException("At least one share must be positive");
+        }
+    }
+}
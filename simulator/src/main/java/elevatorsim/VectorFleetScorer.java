@@ -0,0 +1,66 @@
+package elevatorsim;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import elevatorsim.MultiElevatorController.Direction;
+
+/**
+ * Up/down collective dispatch over a CarFleet with the Vector API: suitability masks and
+ * request counts are worked out for as many cars at once as the CPU has int lanes, each
+ * lane keeps the best car it has seen, and the lanes are reduced to one car at the end.
+ * The cars left over after the last full vector are scored one at a time.
+ *
+ * This class is only loaded when the jdk.incubator.vector module is present, see CarFleet.
+ */
+final class VectorFleetScorer {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final IntVector LANES = IntVector.zero(SPECIES).addIndex(1);
+    private static final IntVector NONE = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+
+    private VectorFleetScorer() {
+    }
+
+    // Same as CarFleet.leastRequestsKey from the first car
+    static long leastRequestsKey(CarFleet fleet, int callFloor, Direction callDirection, int passengers, int weight,
+            int carCapacity, int ratedLoad) {
+        int wanted = callDirection.ordinal();
+        boolean up = callDirection == Direction.UP;
+        boolean down = callDirection == Direction.DOWN;
+        int passengerRoom = carCapacity - passengers;
+        int loadRoom = ratedLoad - weight;
+        // Per lane, the fewest requests of a suitable car so far and the first car with that many
+        IntVector bestRequests = NONE;
+        IntVector bestCars = NONE;
+        int bound = SPECIES.loopBound(fleet.size());
+        for (int car = 0; car < bound; car += SPECIES.length()) {
+            IntVector floor = IntVector.fromArray(SPECIES, fleet.floor, car);
+            IntVector heading = IntVector.fromArray(SPECIES, fleet.direction, car);
+            VectorMask<Integer> room = IntVector.fromArray(SPECIES, fleet.passengersOnBoard, car)
+                    .compare(VectorOperators.LE, passengerRoom)
+                    .and(IntVector.fromArray(SPECIES, fleet.loadOnBoard, car).compare(VectorOperators.LE, loadRoom));
+            VectorMask<Integer> ahead = up ? floor.compare(VectorOperators.LE, callFloor)
+                    : down ? floor.compare(VectorOperators.GE, callFloor) : SPECIES.maskAll(false);
+            VectorMask<Integer> suitable = room.and(heading.compare(VectorOperators.EQ, CarFleet.IDLE)
+                    .or(heading.compare(VectorOperators.EQ, wanted).and(ahead)));
+            IntVector requests = IntVector.fromArray(SPECIES, fleet.requests, car);
+            // Strictly fewer, so each lane keeps the lowest ID among its ties
+            VectorMask<Integer> better = suitable.and(requests.compare(VectorOperators.LT, bestRequests));
+            bestRequests = bestRequests.blend(requests, better);
+            bestCars = bestCars.blend(LANES.add(car), better);
+        }
+
+        long bestKey = Long.MAX_VALUE;
+        int fewest = bestRequests.reduceLanes(VectorOperators.MIN);
+        if (fewest != Integer.MAX_VALUE) {
+            int car = NONE.blend(bestCars, bestRequests.compare(VectorOperators.EQ, fewest))
+                    .reduceLanes(VectorOperators.MIN);
+            bestKey = ((long) fewest << 32) | car;
+        }
+        return Math.min(bestKey, fleet.leastRequestsKey(bound, callFloor, callDirection, passengers, weight,
+                carCapacity, ratedLoad));
+    }
+}
@@ -0,0 +1,338 @@
+package elevatorsim;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import elevatorsim.MultiElevatorController.Direction;
+import elevatorsim.MultiElevatorController.Request;
+
+/**
+ * A tower served by several banks of cars that each serve floors of their own: low, mid
+ * and high rise zones, express shuttles up to sky lobbies and the local cars above them.
+ * Every bank is a MultiElevatorController of its own. A passenger whose trip no single
+ * bank covers rides to a transfer floor, walks over to the next bank and calls a car
+ * there, taking the route with the fewest transfers, and the fewest floors among those.
+ *
+ * Banks only affect each other through passengers transferring, and walking from one bank
+ * to another takes transferTime time units. So the banks are simulated side by side in
+ * steps of transferTime: nothing a bank does during a step can reach another bank before
+ * the step is over, and passengers who got off to transfer are handed to their next bank
+ * between steps. The banks of a step run on a ForkJoinPool, and a run comes out the same
+ * whatever the pool's size.
+ */
+final class ZonedBuilding {
+
+    /*
+     * Results of a run.
+     *
+     * @param banks          each bank's metrics, in the order the banks were given. Every
+     *                       leg of a trip counts as a request in its bank.
+     * @param tripsStarted   hall calls made in the building
+     * @param tripsCompleted hall calls whose passengers reached their destination
+     * @param transfers      times passengers changed banks
+     * @param journeyTime    time from the first hall call to arriving at the destination,
+     *                       counting every ride, walk and wait on the way, per passenger
+     */
+    record Metrics(List<SimulationMetrics> banks, int tripsStarted, int tripsCompleted, int transfers,
+            LatencySummary journeyTime) {
+    }
+
+    /*
+     * A way from one floor to another: the passenger rides from floors[i] to floors[i + 1]
+     * in bank banks[i].
+     */
+    private record Route(int[] banks, int[] floors) {
+    }
+
+    // A passenger's trip from their first hall call to their destination
+    private static final class Trip {
+        final Request request;
+        final Route route;
+        int leg;
+
+        Trip(Request request, Route route) {
+            this.request = request;
+            this.route = route;
+        }
+    }
+
+    // A leg's hall call, waiting for its time. Calls of the same time keep the order they were made in.
+    private record PendingLeg(Request request, long sequence) {
+    }
+
+    // Passengers getting out of a car in a bank
+    private record Exit(int time, Request request) {
+    }
+
+    /*
+     * A bank's controller, and the legs it has yet to be given, as the source it reads its
+     * hall calls from. Only the thread running the bank touches exits during a step.
+     */
+    private static final class BankRunner implements RequestSource {
+        final ElevatorBank bank;
+        final MultiElevatorController controller;
+        final PriorityQueue<PendingLeg> legs = new PriorityQueue<>(
+                Comparator.comparingInt((PendingLeg leg) -> leg.request().time).thenComparingLong(PendingLeg::sequence));
+        final ArrayList<Exit> exits = new ArrayList<>();
+
+        BankRunner(ElevatorBank bank) {
+            this.bank = bank;
+            this.controller = new MultiElevatorController(bank.config());
+            controller.setEventListener(new ElevatorEventListener() {
+                @Override
+                public void onPassengerExit(int time, int elevatorID, Request request) {
+                    exits.add(new Exit(time, request));
+                }
+            });
+        }
+
+        @Override
+        public Request peek() {
+            PendingLeg leg = legs.peek();
+            return leg != null ? leg.request() : null;
+        }
+
+        @Override
+        public Request poll() {
+            PendingLeg leg = legs.poll();
+            return leg != null ? leg.request() : null;
+        }
+    }
+
+    private final List<BankRunner> banks = new ArrayList<>();
+    private final int transferTime;
+    private final ForkJoinPool pool;
+    private final int bottomFloor;
+    private final int topFloor;
+    private final Map<Long, Route> routes = new HashMap<>();
+    // The trip every leg still on its way belongs to
+    private final IdentityHashMap<Request, Trip> trips = new IdentityHashMap<>();
+    private long nextLegSequence;
+    private int currentTime;
+    private int tripsStarted;
+    private int tripsCompleted;
+    private int transfers;
+    private final LatencyHistogram journeyTimes = new LatencyHistogram();
+
+    ZonedBuilding(List<ElevatorBank> banks, int transferTime) {
+        this(banks, transferTime, ForkJoinPool.commonPool());
+    }
+
+    /*
+     * A building of the given banks, where walking from one bank to another takes
+     * transferTime time units, simulated on the given pool.
+     */
+    ZonedBuilding(List<ElevatorBank> banks, int transferTime, ForkJoinPool pool) {
+        if (banks.isEmpty()) {
+            throw new IllegalArgumentException("A building needs at least one bank");
+        }
+        if (transferTime < 1) {
+            throw new IllegalArgumentException("transferTime must be at least 1, got " + transferTime);
+        }
+        int bottomFloor = Integer.MAX_VALUE;
+        int topFloor = Integer.MIN_VALUE;
+        for (ElevatorBank bank : banks) {
+            this.banks.add(new BankRunner(bank));
+            bottomFloor = Math.min(bottomFloor, bank.config().bottomFloor());
+            topFloor = Math.max(topFloor, bank.config().topFloor());
+        }
+        this.bottomFloor = bottomFloor;
+        this.topFloor = topFloor;
+        this.transferTime = transferTime;
+        this.pool = pool;
+    }
+
+    MultiElevatorController getController(int bank) {
+        return banks.get(bank).controller;
+    }
+
+    int getCurrentTime() {
+        return currentTime;
+    }
+
+    public void runSimulation(Map<Integer, List<Request>> mapOfTimesToRequest, int totalSimTime) {
+        runSimulation(RequestSource.of(mapOfTimesToRequest), totalSimTime);
+    }
+
+    /*
+     * Runs every bank for totalSimTime time units, starting the trips from the source as
+     * the clock reaches them. Like MultiElevatorController.runSimulation, requests older
+     * than the current time are skipped and requests past the end of the run are left in
+     * the source.
+     */
+    public void runSimulation(RequestSource requests, int totalSimTime) {
+        int endTime = currentTime + totalSimTime;
+        List<ForkJoinTask<?>> runs = new ArrayList<>(banks.size());
+        while (currentTime < endTime) {
+            int stepEnd = Math.min(endTime, currentTime + transferTime);
+            Request next;
+            while ((next = requests.peek()) != null && next.time < stepEnd) {
+                requests.poll();
+                if (next.time >= currentTime) {
+                    startTrip(next);
+                }
+            }
+            int stepLength = stepEnd - currentTime;
+            for (BankRunner bank : banks) {
+                runs.add(pool.submit(() -> bank.controller.runSimulation(bank, stepLength)));
+            }
+            for (ForkJoinTask<?> run : runs) {
+                run.join();
+            }
+            runs.clear();
+            currentTime = stepEnd;
+            // Passengers who got off this step walk to their next bank, in bank order
+            for (BankRunner bank : banks) {
+                for (Exit exit : bank.exits) {
+                    completeLeg(exit);
+                }
+                bank.exits.clear();
+            }
+        }
+    }
+
+    private void startTrip(Request request) {
+        if (request.floor == request.destination) {
+            throw new IllegalArgumentException("Request doesn't go anywhere: " + request);
+        }
+        Route route = findRoute(request.floor, request.destination);
+        if (route == null) {
+            throw new IllegalArgumentException("No bank or chain of banks serves " + request);
+        }
+        for (int bank : route.banks()) {
+            BuildingConfig config = banks.get(bank).bank.config();
+            if (request.passengers > config.carCapacity() || request.weight > config.ratedLoad()) {
+                throw new IllegalArgumentException("Request doesn't fit in an empty car: " + request);
+            }
+        }
+        Trip trip = new Trip(request, route);
+        tripsStarted++;
+        callForLeg(trip, request.time);
+    }
+
+    // Makes the hall call for the trip's current leg, in that leg's bank
+    private void callForLeg(Trip trip, int time) {
+        int from = trip.route.floors()[trip.leg];
+        int to = trip.route.floors()[trip.leg + 1];
+        Request request = new Request(from, to > from ? Direction.UP : Direction.DOWN, to, time,
+                trip.request.passengers, trip.request.weight);
+        trips.put(request, trip);
+        banks.get(trip.route.banks()[trip.leg]).legs.add(new PendingLeg(request, nextLegSequence++));
+    }
+
+    private void completeLeg(Exit exit) {
+        Trip trip = trips.remove(exit.request());
+        if (trip.leg == trip.route.banks().length - 1) {
+            journeyTimes.record(exit.time() - trip.request.time, trip.request.passengers);
+            tripsCompleted++;
+            return;
+        }
+        trip.leg++;
+        transfers++;
+        callForLeg(trip, exit.time() + transferTime);
+    }
+
+    /*
+     * The route with the fewest legs, and of those the fewest floors travelled, or null if
+     * there is none. Found by a shortest path search over (bank, floor) pairs, where
+     * changing banks costs more than any number of floors could.
+     */
+    private Route findRoute(int origin, int destination) {
+        long key = ((long) origin << 32) | (destination & 0xFFFFFFFFL);
+        if (routes.containsKey(key)) {
+            return routes.get(key);
+        }
+        int floors = topFloor - bottomFloor + 1;
+        long legCost = (long) floors * banks.size() + 1;
+        long[][] cost = new long[banks.size()][floors];
+        int[][] previous = new int[banks.size()][floors];
+        for (long[] row : cost) {
+            Arrays.fill(row, Long.MAX_VALUE);
+        }
+        // Entries are {cost, bank, floor}. Ties go to the lower bank and floor, so routes don't change between runs.
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i]) {
+                    return Long.compare(a[i], b[i]);
+                }
+            }
+            return 0;
+        });
+        for (int bank = 0; bank < banks.size(); bank++) {
+            if (banks.get(bank).bank.serves(origin)) {
+                cost[bank][origin - bottomFloor] = legCost;
+                previous[bank][origin - bottomFloor] = -1;
+                queue.add(new long[] { legCost, bank, origin });
+            }
+        }
+        Route route = null;
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int bank = (int) entry[1];
+            int floor = (int) entry[2];
+            if (entry[0] > cost[bank][floor - bottomFloor]) {
+                continue;
+            }
+            if (floor == destination) {
+                route = buildRoute(previous, bank, floor);
+                break;
+            }
+            // Ride to another floor this bank serves
+            for (int next : banks.get(bank).bank.servedFloors()) {
+                relax(queue, cost, previous, entry[0] + Math.abs(next - floor), bank, floor, bank, next);
+            }
+            // Or walk over to another bank that serves this floor
+            for (int other = 0; other < banks.size(); other++) {
+                if (other != bank && banks.get(other).bank.serves(floor)) {
+                    relax(queue, cost, previous, entry[0] + legCost, bank, floor, other, floor);
+                }
+            }
+        }
+        routes.put(key, route);
+        return route;
+    }
+
+    private void relax(PriorityQueue<long[]> queue, long[][] cost, int[][] previous, long newCost, int fromBank,
+            int fromFloor, int bank, int floor) {
+        if (newCost < cost[bank][floor - bottomFloor]) {
+            cost[bank][floor - bottomFloor] = newCost;
+            previous[bank][floor - bottomFloor] = fromBank * (topFloor - bottomFloor + 1) + fromFloor - bottomFloor;
+            queue.add(new long[] { newCost, bank, floor });
+        }
+    }
+
+    // Walks back from the destination, turning each ride into a leg
+    private Route buildRoute(int[][] previous, int bank, int floor) {
+        int floors = topFloor - bottomFloor + 1;
+        ArrayList<Integer> legBanks = new ArrayList<>();
+        ArrayList<Integer> legFloors = new ArrayList<>();
+        legFloors.add(floor);
+        while (previous[bank][floor - bottomFloor] != -1) {
+            int state = previous[bank][floor - bottomFloor];
+            int fromBank = state / floors;
+            int fromFloor = bottomFloor + state % floors;
+            if (fromBank == bank) {
+                legBanks.add(bank);
+                legFloors.add(fromFloor);
+            }
+            bank = fromBank;
+            floor = fromFloor;
+        }
+        Collections.reverse(legBanks);
+        Collections.reverse(legFloors);
+        return new Route(legBanks.stream().mapToInt(Integer::intValue).toArray(),
+                legFloors.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /*
+     * Summarizes the run so far. Trips started but not completed are still on their way.
+     */
+    Metrics getMetrics() {
+        List<SimulationMetrics> bankMetrics = new ArrayList<>(banks.size());
+        for (BankRunner bank : banks) {
+            bankMetrics.add(bank.controller.getMetrics());
+        }
+        return new Metrics(bankMetrics, tripsStarted, tripsCompleted, transfers, journeyTimes.summarize());
+    }
+}